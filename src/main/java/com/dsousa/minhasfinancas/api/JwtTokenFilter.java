@@ -1,6 +1,7 @@
 package com.dsousa.minhasfinancas.api;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -14,16 +15,23 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.dsousa.minhasfinancas.service.JwtService;
+import com.dsousa.minhasfinancas.service.TokenVerificado;
+import com.dsousa.minhasfinancas.service.UsuarioAutenticado;
 import com.dsousa.minhasfinancas.service.impl.SecurityUserDetailsService;
+import com.dsousa.minhasfinancas.service.impl.UsuarioAutenticadoCache;
 
 public class JwtTokenFilter extends OncePerRequestFilter {
 	
 	private JwtService jwtService;
 	private SecurityUserDetailsService userDetailsService;
+	private UsuarioAutenticadoCache usuarioAutenticadoCache;
+	private boolean stateless;
 
-	public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService) {
+	public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService, UsuarioAutenticadoCache usuarioAutenticadoCache, boolean stateless) {
 		this.jwtService = jwtService;
 		this.userDetailsService = userDetailsService;
+		this.usuarioAutenticadoCache = usuarioAutenticadoCache;
+		this.stateless = stateless;
 	}
 	
 	@Override
@@ -33,11 +41,10 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
 		if(authorization != null && authorization.startsWith("Bearer")) {
 			String token = authorization.split(" ")[1];
-			boolean isTokenValid = jwtService.isTokenValido(token);
+			Optional<TokenVerificado> tokenVerificado = jwtService.verificarToken(token);
 			
-			if(isTokenValid) {
-				String login = jwtService.obterLoginUsuario(token);
-				UserDetails usuarioAutenticado = userDetailsService.loadUserByUsername(login);
+			if(tokenVerificado.isPresent()) {
+				UserDetails usuarioAutenticado = obterUsuarioAutenticado(tokenVerificado.get());
 				UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(usuarioAutenticado, null, usuarioAutenticado.getAuthorities());
 				
 				user.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -49,5 +56,13 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 		
 	}
+	
+	private UserDetails obterUsuarioAutenticado(TokenVerificado token) {
+		if(stateless && token.getIdUsuario() != null) {
+			return UsuarioAutenticado.de(token);
+		}
+		
+		return usuarioAutenticadoCache.obter(token.getLogin(), userDetailsService::loadUserByUsername);
+	}
 
 }
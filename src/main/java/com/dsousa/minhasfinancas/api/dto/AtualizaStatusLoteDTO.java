@@ -0,0 +1,23 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtualizaStatusLoteDTO {
+
+	private String status;
+	private List<Long> ids;
+	private Long usuario;
+	private Integer ano;
+	private Integer mes;
+	private String tipo;
+
+}
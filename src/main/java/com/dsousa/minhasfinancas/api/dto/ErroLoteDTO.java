@@ -0,0 +1,13 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ErroLoteDTO {
+
+	private int indice;
+	private String mensagem;
+
+}
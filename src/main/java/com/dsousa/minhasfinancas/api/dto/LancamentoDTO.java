@@ -21,5 +21,6 @@ public class LancamentoDTO {
 	private Long usuario;
 	private String tipo;
 	private String status;
+	private Long versao;
 	
 }
@@ -0,0 +1,15 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+	private int quantidade;
+	private List<ErroLoteDTO> erros;
+
+}
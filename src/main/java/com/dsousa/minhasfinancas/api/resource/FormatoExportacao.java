@@ -0,0 +1,86 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+
+@Getter
+public enum FormatoExportacao {
+
+	NDJSON("application/x-ndjson", "ndjson") {
+		@Override
+		void escreverCabecalho(Writer writer) {
+		}
+
+		@Override
+		void escrever(Writer writer, LancamentoDTO lancamento, ObjectMapper mapper) throws IOException {
+			writer.write(mapper.writeValueAsString(lancamento));
+			writer.write('\n');
+		}
+	},
+	
+	CSV("text/csv", "csv") {
+		@Override
+		void escreverCabecalho(Writer writer) throws IOException {
+			writer.write("id,descricao,mes,ano,valor,tipo,status,usuario\n");
+		}
+
+		@Override
+		void escrever(Writer writer, LancamentoDTO lancamento, ObjectMapper mapper) throws IOException {
+			writer.write(String.valueOf(lancamento.getId()));
+			writer.write(',');
+			writer.write(escaparCsv(lancamento.getDescricao()));
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getMes()));
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getAno()));
+			writer.write(',');
+			writer.write(lancamento.getValor() == null ? "" : lancamento.getValor().toPlainString());
+			writer.write(',');
+			writer.write(lancamento.getTipo() == null ? "" : lancamento.getTipo());
+			writer.write(',');
+			writer.write(lancamento.getStatus() == null ? "" : lancamento.getStatus());
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getUsuario()));
+			writer.write('\n');
+		}
+	};
+	
+	private final String tipoConteudo;
+	private final String extensao;
+	
+	FormatoExportacao(String tipoConteudo, String extensao) {
+		this.tipoConteudo = tipoConteudo;
+		this.extensao = extensao;
+	}
+	
+	abstract void escreverCabecalho(Writer writer) throws IOException;
+	
+	abstract void escrever(Writer writer, LancamentoDTO lancamento, ObjectMapper mapper) throws IOException;
+	
+	public static FormatoExportacao de(String formato) {
+		try {
+			return valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Formato de exportação inválido, utilize ndjson ou csv.");
+		}
+	}
+	
+	private static String escaparCsv(String valor) {
+		if(valor == null) {
+			return "";
+		}
+		
+		if(valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+			return valor;
+		}
+		
+		return '"' + valor.replace("\"", "\"\"") + '"';
+	}
+	
+}
@@ -1,12 +1,34 @@
 package com.dsousa.minhasfinancas.api.resource;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -14,16 +36,30 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.dsousa.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.dsousa.minhasfinancas.api.dto.ErroLoteDTO;
 import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.dto.ResultadoLoteDTO;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
+import com.dsousa.minhasfinancas.service.FormatoExtrato;
+import com.dsousa.minhasfinancas.service.ImportacaoService;
 import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.Pagina;
+import com.dsousa.minhasfinancas.service.ResultadoImportacao;
+import com.dsousa.minhasfinancas.service.ResumoMensal;
+import com.dsousa.minhasfinancas.service.UsuarioAutenticado;
 import com.dsousa.minhasfinancas.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import net.bytebuddy.utility.privilege.GetMethodAction;
@@ -33,37 +69,158 @@ import net.bytebuddy.utility.privilege.GetMethodAction;
 @RequiredArgsConstructor
 public class LancamentoResource {
 	
+	private static final int TAMANHO_PAGINA_PADRAO = 50;
+	private static final int TAMANHO_MAXIMO_LOTE = 10000;
+	private static final String USUARIO_NAO_ENCONTRADO = "Usuário não encontrado para o ID informado.";
+	private static final String LANCAMENTO_ALTERADO = "O lançamento foi alterado por outra requisição. Consulte a versão atual e tente novamente.";
+	private static final String ACESSO_NEGADO = "Não é permitido acessar os lançamentos de outro usuário.";
+	private static final String USUARIO_NAO_ENCONTRADO_CONSULTA = "Não foi possível realizar a consulta. " + USUARIO_NAO_ENCONTRADO;
+	
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final ImportacaoService importacaoService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
 	public ResponseEntity buscar( 
 			@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
 			@RequestParam(value = "ano", required = false) Integer ano,
-			@RequestParam("usuario") Long idUsuario
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "tamanho", required = false) Integer tamanho,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado,
+			WebRequest request
 			) {
 		Lancamento lancamentofiltro = new Lancamento();
 		lancamentofiltro.setDescricao(descricao);
 		lancamentofiltro.setMes(mes);
 		lancamentofiltro.setAno(ano);
 		
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-		if(!usuario.isPresent()) {
-			return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o ID informado.");
-		} else {
-			lancamentofiltro.setUsuario(usuario.get());
+		if(idUsuario == null && usuarioAutenticado != null) {
+			idUsuario = usuarioAutenticado.getId();
+		}
+		
+		if(idUsuario == null) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_CONSULTA);
+		}
+		
+		// a revalidação vem depois das verificações de acesso: sem usuário autenticado nunca há 304
+		if(usuarioAutenticado != null) {
+			long versao = service.obterVersao(idUsuario);
+			if(versao > 0 && request.checkNotModified(VersaoRecurso.etag(idUsuario, versao))) {
+				return null;
+			}
+		}
+		
+		// a consulta filtra apenas pelo id; a existência do usuário só precisa ser verificada
+		// quando nada for encontrado, e nunca para o próprio usuário autenticado
+		lancamentofiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+		boolean proprioUsuario = usuarioAutenticado != null && idUsuario.equals(usuarioAutenticado.getId());
+		
+		if(tamanho != null || cursor != null) {
+			try {
+				Pagina<LancamentoDTO> pagina = service
+						.buscarPagina(lancamentofiltro, cursor, tamanho == null ? TAMANHO_PAGINA_PADRAO : tamanho)
+						.map(lancamento -> converter(lancamento));
+				if(pagina.getItens().isEmpty() && !proprioUsuario && !usuarioService.existe(idUsuario)) {
+					return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_CONSULTA);
+				}
+				return ResponseEntity.ok().cacheControl(VersaoRecurso.REVALIDAR).body(pagina);
+			} catch (RegraNegocioException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
+		
+		List<LancamentoDTO> lancamentos = service
+				.listar(lancamentofiltro)
+				.stream()
+				.map(lancamento -> converter(lancamento))
+				.collect(Collectors.toList());
+		if(lancamentos.isEmpty() && !proprioUsuario && !usuarioService.existe(idUsuario)) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_CONSULTA);
+		}
+		return ResponseEntity.ok().cacheControl(VersaoRecurso.REVALIDAR).body(lancamentos);
+		
+	}
+	
+	@GetMapping("/pesquisa")
+	public ResponseEntity pesquisar(
+			@RequestParam(value = "termos") String termos,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "limite", defaultValue = "50") int limite,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado
+			) {
+		Long idUsuarioPesquisa = usuarioPermitido(idUsuario, usuarioAutenticado);
+		if(idUsuarioPesquisa == null) {
+			return acessoNegado();
+		}
+		
+		try {
+			List<LancamentoDTO> lancamentos = service
+					.pesquisar(idUsuarioPesquisa, termos, limite)
+					.stream()
+					.map(lancamento -> converter(lancamento))
+					.collect(Collectors.toList());
+			return ResponseEntity.ok(lancamentos);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@GetMapping("/exportar")
+	public ResponseEntity exportar(
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "ndjson") String formato,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado
+			) {
+		FormatoExportacao formatoExportacao;
+		try {
+			formatoExportacao = FormatoExportacao.de(formato);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		
+		Long idUsuarioExportacao = usuarioPermitido(idUsuario, usuarioAutenticado);
+		if(idUsuarioExportacao == null) {
+			return acessoNegado();
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentofiltro);
-		return ResponseEntity.ok(lancamentos);
+		StreamingResponseBody corpo = saida -> exportar(idUsuarioExportacao, formatoExportacao, saida);
 		
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(formatoExportacao.getTipoConteudo()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"")
+				.body(corpo);
+	}
+	
+	@GetMapping("/resumo")
+	public ResponseEntity obterResumo(
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado
+			) {
+		Long idUsuarioResumo = usuarioPermitido(idUsuario, usuarioAutenticado);
+		if(idUsuarioResumo == null) {
+			return acessoNegado();
+		}
+		
+		List<ResumoMensal> resumo = service.obterResumoMensal(idUsuarioResumo, ano);
+		return ResponseEntity.ok(resumo);
 	}
 	
 	@GetMapping("{id}")
-	public ResponseEntity obterLancamento( @PathVariable("id") Long id) {
-		return service.obterPorId(id)
-				.map( lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+	public ResponseEntity obterLancamento( @PathVariable("id") Long id,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+		Optional<LancamentoProjecao> lancamento = service.obterProjecaoPorId(id);
+		Long idUsuario = usuarioPermitido(null, usuarioAutenticado);
+		if(!lancamento.isPresent() && idUsuario != null) {
+			// anos fechados saem da tabela, mas continuam nas listagens: o lançamento arquivado do
+			// próprio usuário pode ser consultado, apenas para leitura
+			lancamento = service.obterArquivadoPorId(id, idUsuario);
+		}
+		return lancamento
+				.map( encontrado -> new ResponseEntity(converter(encontrado), HttpStatus.OK))
 				.orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
 	}
 	
@@ -73,9 +230,81 @@ public class LancamentoResource {
 		try {
 			Lancamento entidade = converter(dto);
 			entidade = service.salvar(entidade);
-			return new ResponseEntity(entidade, HttpStatus.CREATED);
+			// a resposta leva só o id do usuário: serializar a entidade inicializaria a referência e consultaria o usuário
+			return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (DataIntegrityViolationException e) {
+			// o usuário é referenciado só pelo id: um id inexistente é recusado pela chave estrangeira
+			if(!usuarioInexistente(e)) {
+				throw e;
+			}
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		}
+	}
+	
+	@PostMapping("/lote")
+	public ResponseEntity salvarEmLote( @RequestBody List<LancamentoDTO> dtos ) {
+		if(dtos.size() > TAMANHO_MAXIMO_LOTE) {
+			return ResponseEntity.badRequest().body("Envie no máximo " + TAMANHO_MAXIMO_LOTE + " lançamentos por lote.");
+		}
+		
+		// cada usuário distinto é consultado uma única vez para todo o lote
+		Map<Long, Optional<Usuario>> usuarios = new HashMap<>();
+		List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+		List<ErroLoteDTO> erros = new ArrayList<>();
+		
+		for(int i = 0; i < dtos.size(); i++) {
+			try {
+				Lancamento lancamento = converter(dtos.get(i), usuarios);
+				service.validar(lancamento);
+				lancamentos.add(lancamento);
+			} catch (RegraNegocioException | IllegalArgumentException e) {
+				erros.add(new ErroLoteDTO(i, e.getMessage()));
+			}
+		}
+		
+		if(!erros.isEmpty()) {
+			return ResponseEntity.badRequest().body(new ResultadoLoteDTO(0, erros));
+		}
+		
+		int quantidade = service.salvarEmLote(lancamentos);
+		return new ResponseEntity(new ResultadoLoteDTO(quantidade, erros), HttpStatus.CREATED);
+	}
+	
+	@PostMapping("/importar")
+	public ResponseEntity importar(
+			@RequestParam("arquivo") MultipartFile arquivo,
+			@RequestParam(value = "formato", required = false) String formato,
+			@RequestParam(value = "codificacao", defaultValue = "UTF-8") String codificacao,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado
+			) {
+		Long idUsuarioImportacao = usuarioPermitido(idUsuario, usuarioAutenticado);
+		if(idUsuarioImportacao == null) {
+			return acessoNegado();
+		}
+		
+		String nomeArquivo = arquivo.getOriginalFilename();
+		if(formato == null && nomeArquivo != null && nomeArquivo.lastIndexOf('.') >= 0) {
+			formato = nomeArquivo.substring(nomeArquivo.lastIndexOf('.') + 1);
+		}
+		
+		Charset charset;
+		try {
+			charset = Charset.forName(codificacao);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Codificação do arquivo inválida.");
+		}
+		
+		// o arquivo é lido direto do upload, linha a linha, sem carregá-lo inteiro em memória
+		try(Reader extrato = new InputStreamReader(arquivo.getInputStream(), charset)) {
+			ResultadoImportacao resultado = importacaoService.importar(idUsuarioImportacao, FormatoExtrato.de(formato), extrato);
+			return ResponseEntity.ok(resultado);
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IOException e) {
+			return ResponseEntity.badRequest().body("Não foi possível ler o arquivo enviado.");
 		}
 	}
 	
@@ -85,43 +314,193 @@ public class LancamentoResource {
 			try {
 				Lancamento lancamento = converter(dto);
 				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
+				// sem versão no corpo, a atualização parte da versão que acabou de ser lida
+				lancamento.setVersao(dto.getVersao() != null ? dto.getVersao() : entity.getVersao());
+				lancamento = service.atualizar(lancamento);
+				return ResponseEntity.ok(converter(lancamento));
 			} catch (RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
+			} catch (DataIntegrityViolationException e) {
+				if(!usuarioInexistente(e)) {
+					throw e;
+				}
+				return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+			} catch (OptimisticLockingFailureException e) {
+				return ResponseEntity.status(HttpStatus.CONFLICT).body(LANCAMENTO_ALTERADO);
 			}
-		}).orElseGet( () -> 
-		new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+		}).orElseGet( () -> lancamentoNaoEncontrado());
 	}
 	
-	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus( @PathVariable("id") Long id,  @RequestBody AtualizaStatusDTO dto ) {
-		return service.obterPorId(id).map( entity -> {
-			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-			if(statusSelecionado == null) {
-				return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+	@PatchMapping("{id}")
+	public ResponseEntity atualizarParcialmente( @PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado ) {
+		Long idUsuario = usuarioPermitido(null, usuarioAutenticado);
+		if(idUsuario == null) {
+			return acessoNegado();
+		}
+		
+		try {
+			Usuario usuario = dto.getUsuario() == null ? null : usuarioService.obterReferencia(dto.getUsuario());
+			Lancamento alteracoes = converter(dto, usuario);
+			alteracoes.setVersao(dto.getVersao());
+			return service.atualizarParcialmente(id, idUsuario, alteracoes)
+					.<ResponseEntity>map(lancamento -> ResponseEntity.ok(lancamento))
+					.orElseGet( () -> lancamentoNaoEncontrado());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o lançamento, envie um tipo e um status válidos.");
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (DataIntegrityViolationException e) {
+			if(!usuarioInexistente(e)) {
+				throw e;
 			}
-			try {
-				service.atualizarStatus(entity, statusSelecionado);
-				return ResponseEntity.ok(entity);
-			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		} catch (OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(LANCAMENTO_ALTERADO);
+		}
+	}
+	
+	@PutMapping("{id}/atualiza-status")
+	public ResponseEntity atualizarStatus( @PathVariable("id") Long id,  @RequestBody AtualizaStatusDTO dto,
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado ) {
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = dto.getStatus() == null ? null : StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException e) {
+			statusSelecionado = null;
+		}
+		
+		if(statusSelecionado == null) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+		}
+		
+		Long idUsuario = usuarioPermitido(null, usuarioAutenticado);
+		if(idUsuario == null) {
+			return acessoNegado();
+		}
+		
+		// um único update condicionado ao dono; o lançamento de outro usuário é tratado como inexistente
+		return service.atualizarStatus(id, idUsuario, statusSelecionado)
+				.<ResponseEntity>map(lancamento -> ResponseEntity.ok(converter(lancamento)))
+				.orElseGet( () -> lancamentoNaoEncontrado());
+	}
+	
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote( @RequestBody AtualizaStatusLoteDTO dto, 
+			@AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado ) {
+		if(dto.getStatus() == null) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+		}
+		
+		Long idUsuario = usuarioPermitido(dto.getUsuario(), usuarioAutenticado);
+		if(idUsuario == null) {
+			return acessoNegado();
+		}
+		
+		try {
+			StatusLancamento status = StatusLancamento.valueOf(dto.getStatus());
+			
+			int atualizados;
+			if(dto.getIds() != null) {
+				atualizados = service.atualizarStatusEmLote(idUsuario, dto.getIds(), status);
+			} else {
+				Lancamento lancamentofiltro = new Lancamento();
+				lancamentofiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+				lancamentofiltro.setAno(dto.getAno());
+				lancamentofiltro.setMes(dto.getMes());
+				if(dto.getTipo() != null) {
+					lancamentofiltro.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+				}
+				atualizados = service.atualizarStatusPorFiltro(lancamentofiltro, status);
 			}
-		}).orElseGet( () -> 
-		new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
-				
+			
+			return ResponseEntity.ok(atualizados);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status e um tipo válidos.");
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 	}
 	
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar( @PathVariable("id") Long id) {
-		return service.obterPorId(id).map( entidade -> {
-			service.deletar(entidade);
-			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-		}).orElseGet( () -> 
-			new ResponseEntity<>("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+	public ResponseEntity deletar( @PathVariable("id") Long id, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+		Long idUsuario = usuarioPermitido(null, usuarioAutenticado);
+		if(idUsuario == null) {
+			return acessoNegado();
+		}
+		
+		if(!service.deletar(id, idUsuario)) {
+			return lancamentoNaoEncontrado();
+		}
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+	
+	private void exportar(Long idUsuario, FormatoExportacao formato, OutputStream saida) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+		formato.escreverCabecalho(writer);
+		
+		try {
+			service.exportar(idUsuario, lancamento -> {
+				try {
+					formato.escrever(writer, converter(lancamento), objectMapper);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		
+		writer.flush();
+	}
+	
+	// estas operações só valem para os lançamentos do próprio usuário: o parâmetro usuario, quando
+	// enviado, precisa ser o autenticado, e sem usuário autenticado nada é permitido
+	private static Long usuarioPermitido(Long idUsuario, UsuarioAutenticado usuarioAutenticado) {
+		if(usuarioAutenticado == null || usuarioAutenticado.getId() == null) {
+			return null;
+		}
+		if(idUsuario != null && !idUsuario.equals(usuarioAutenticado.getId())) {
+			return null;
+		}
+		return usuarioAutenticado.getId();
+	}
+	
+	private static ResponseEntity acessoNegado() {
+		return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ACESSO_NEGADO);
+	}
+	
+	// PUT, PATCH, alteração de status e exclusão respondem da mesma forma a um id inexistente
+	private static ResponseEntity lancamentoNaoEncontrado() {
+		return new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.NOT_FOUND);
+	}
+	
+	// o lançamento só grava chaves estrangeiras para o usuário (nele, no saldo e na versão do usuário):
+	// a violação de uma delas por falta da linha referenciada é 23503 no PostgreSQL e 23506 no H2
+	private static boolean usuarioInexistente(DataIntegrityViolationException e) {
+		Throwable causa = NestedExceptionUtils.getMostSpecificCause(e);
+		if(!(causa instanceof SQLException)) {
+			return false;
+		}
+		String estado = ((SQLException) causa).getSQLState();
+		return "23503".equals(estado) || "23506".equals(estado);
 	}
 	
 	private LancamentoDTO converter(Lancamento lancamento) {
+		return LancamentoDTO.builder()
+				.id(lancamento.getId())
+				.descricao(lancamento.getDescricao())
+				.valor(lancamento.getValor())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.status(lancamento.getStatus() == null ? null : lancamento.getStatus().name())
+				.tipo(lancamento.getTipo() == null ? null : lancamento.getTipo().name())
+				.usuario(lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId())
+				.versao(lancamento.getVersao())
+				.build();
+	}
+	
+	private LancamentoDTO converter(LancamentoProjecao lancamento) {
 		return LancamentoDTO.builder()
 				.id(lancamento.getId())
 				.descricao(lancamento.getDescricao())
@@ -130,22 +509,37 @@ public class LancamentoResource {
 				.ano(lancamento.getAno())
 				.status(lancamento.getStatus().name())
 				.tipo(lancamento.getTipo().name())
-				.usuario(lancamento.getUsuario().getId())
+				.usuario(lancamento.getIdUsuario())
+				.versao(lancamento.getVersao())
 				.build();
 	}
 	
+	private Lancamento converter(LancamentoDTO dto, Map<Long, Optional<Usuario>> usuarios) {
+		if(dto.getUsuario() == null) {
+			throw new RegraNegocioException("Informe um Usuário.");
+		}
+		
+		Usuario usuario = usuarios
+				.computeIfAbsent(dto.getUsuario(), id -> usuarioService.obterPorId(id))
+				.orElseThrow( () -> new RegraNegocioException(USUARIO_NAO_ENCONTRADO));
+		return converter(dto, usuario);
+	}
+	
 	private Lancamento converter(LancamentoDTO dto) {
+		if(dto.getUsuario() == null) {
+			throw new RegraNegocioException("Informe um Usuário.");
+		}
+		
+		return converter(dto, usuarioService.obterReferencia(dto.getUsuario()));
+	}
+	
+	private Lancamento converter(LancamentoDTO dto, Usuario usuario) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
 		lancamento.setAno(dto.getAno());
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
-		
-		Usuario usuario = usuarioService
-				.obterPorId(dto.getUsuario())
-				.orElseThrow( () -> new RegraNegocioException("Usuário não encontrado para o ID informado."));
-		
 		lancamento.setUsuario(usuario);
 		if(dto.getTipo() != null) {
 			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
@@ -3,7 +3,18 @@ package com.dsousa.minhasfinancas.api.resource;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,11 +23,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.dsousa.minhasfinancas.api.dto.TokenDTO;
 import com.dsousa.minhasfinancas.api.dto.UsuarioDTO;
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.exception.ServicoIndisponivelException;
+import com.dsousa.minhasfinancas.exception.TentativasExcedidasException;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.service.JwtService;
 import com.dsousa.minhasfinancas.service.LancamentoService;
@@ -33,46 +47,95 @@ public class UsuarioResource {
 	private final LancamentoService lancamentoService;
 	private final JwtService jwtService;
 	
+	@Autowired(required = false)
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor taskExecutor;
+	
+	// o hash da senha roda no ExecutorCriptografia; a thread do servlet é liberada enquanto isso
 	@PostMapping("/autenticar")
-	public ResponseEntity<?> autenticar( @RequestBody UsuarioDTO dto) {
-		try {
-			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			String token = jwtService.gerarToken(usuarioAutenticado);
-			TokenDTO tokenDTO = new TokenDTO(usuarioAutenticado.getNome(), token);
-			
-			return ResponseEntity.ok(tokenDTO);
-		} catch (ErroAutenticacao e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
-		
+	public CompletableFuture<ResponseEntity<?>> autenticar( @RequestBody UsuarioDTO dto, HttpServletRequest request) {
+		// atrás de um proxy, server.forward-headers-strategy=native faz o container trocar este endereço
+		// pelo do X-Forwarded-For, aceito apenas quando a requisição vem de um proxy da rede interna
+		String enderecoCliente = request.getRemoteAddr();
+		return iniciar(() -> service.autenticarAssincrono(dto.getEmail(), dto.getSenha(), enderecoCliente))
+				.handle((usuarioAutenticado, erro) -> {
+					if(erro != null) {
+						return tratarErro(erro);
+					}
+					String token = jwtService.gerarToken(usuarioAutenticado);
+					TokenDTO tokenDTO = new TokenDTO(usuarioAutenticado.getNome(), token);
+					
+					return ResponseEntity.ok(tokenDTO);
+				});
 	}
 	
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody UsuarioDTO dto) {
+	public CompletableFuture<ResponseEntity<?>> salvar(@RequestBody UsuarioDTO dto) {
 		Usuario usuario = Usuario.builder()
 				.nome(dto.getNome())
 				.email(dto.getEmail())
 				.senha(dto.getSenha())
 				.build();
 		
-		try {
-			Usuario usuarioSalvo = service.salvarUsuario(usuario);
-			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
-		} catch (RegraNegocioException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
-		
+		// o hash sai do ExecutorCriptografia; a gravação, transacional, segue num executor comum para não ocupar esse pool com I/O
+		return iniciar(() -> service.criptografarSenha(usuario))
+				.thenApplyAsync(service::salvarUsuarioCriptografado, executorGravacao())
+				.handle((usuarioSalvo, erro) -> {
+					if(erro != null) {
+						return tratarErro(erro);
+					}
+					return new ResponseEntity<>(usuarioSalvo, HttpStatus.CREATED);
+				});
 	}
 	
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo( @PathVariable("id") Long id) {
+	public ResponseEntity obterSaldo( @PathVariable("id") Long id, WebRequest request) {
+		// versão lida antes do saldo: uma escrita no meio gera só uma resposta 200 a mais, nunca um 304 defasado
+		long versao = lancamentoService.obterVersao(id);
+		if(versao > 0 && request.checkNotModified(VersaoRecurso.etag(id, versao))) {
+			return null;
+		}
+		
 		Optional<Usuario> usuario = service.obterPorId(id);
 		if(!usuario.isPresent()) {
 			return new ResponseEntity(HttpStatus.NOT_FOUND);
 		}
 		
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-		return ResponseEntity.ok(saldo);
+		return ResponseEntity.ok().cacheControl(VersaoRecurso.REVALIDAR).body(saldo);
+	}
+	
+	private Executor executorGravacao() {
+		return taskExecutor != null ? taskExecutor : ForkJoinPool.commonPool();
+	}
+	
+	private static <T> CompletableFuture<T> iniciar(Supplier<CompletableFuture<T>> operacao) {
+		try {
+			return operacao.get();
+		} catch (RuntimeException e) {
+			CompletableFuture<T> falha = new CompletableFuture<>();
+			falha.completeExceptionally(e);
+			return falha;
+		}
+	}
+	
+	private static ResponseEntity<?> tratarErro(Throwable erro) {
+		Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+		
+		if(causa instanceof ErroAutenticacao || causa instanceof RegraNegocioException) {
+			return ResponseEntity.badRequest().body(causa.getMessage());
+		}
+		if(causa instanceof TentativasExcedidasException) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(((TentativasExcedidasException) causa).getSegundosParaNovaTentativa()))
+					.body(causa.getMessage());
+		}
+		if(causa instanceof ServicoIndisponivelException) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, "1")
+					.body(causa.getMessage());
+		}
+		throw causa instanceof RuntimeException ? (RuntimeException) causa : new CompletionException(causa);
 	}
 	
 }
@@ -0,0 +1,18 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import org.springframework.http.CacheControl;
+
+// ETag forte derivada da versão do usuário, incrementada em toda escrita nos lançamentos dele
+final class VersaoRecurso {
+
+	// o cliente pode guardar a resposta, mas precisa revalidar com If-None-Match antes de reutilizá-la
+	static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+	
+	private VersaoRecurso() {
+	}
+	
+	static String etag(Long idUsuario, long versao) {
+		return "\"" + idUsuario + "-" + versao + "\"";
+	}
+
+}
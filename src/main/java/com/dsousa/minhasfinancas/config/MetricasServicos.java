@@ -0,0 +1,87 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// cronometra todo método público dos serviços; os timers são criados uma vez por método
+// e a gravação em si só incrementa contadores e o histograma, sem alocar
+@Aspect
+@Component
+public class MetricasServicos {
+
+	private static final String NOME = "servico.chamadas";
+	
+	private final MeterRegistry registry;
+	private final ConcurrentMap<Method, Medidores> medidores = new ConcurrentHashMap<>();
+	
+	public MetricasServicos(MeterRegistry registry) {
+		this.registry = registry;
+	}
+	
+	@Around("execution(public * com.dsousa.minhasfinancas.service.LancamentoService+.*(..)) "
+			+ "|| execution(public * com.dsousa.minhasfinancas.service.UsuarioService+.*(..)) "
+			+ "|| execution(public * com.dsousa.minhasfinancas.service.JwtService+.*(..)) "
+			+ "|| execution(public * com.dsousa.minhasfinancas.service.ImportacaoService+.*(..))")
+	public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		Medidores medidor = medidores.get(metodo);
+		if(medidor == null) {
+			medidor = medidores.computeIfAbsent(metodo, m -> new Medidores(registry, ClassUtils.getUserClass(joinPoint.getTarget()), m));
+		}
+		
+		long inicio = System.nanoTime();
+		Object resultado;
+		try {
+			resultado = joinPoint.proceed();
+		} catch (Throwable e) {
+			medidor.erro.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+		
+		// métodos assíncronos só terminam quando o futuro completa
+		if(resultado instanceof CompletionStage) {
+			Medidores medidorAssincrono = medidor;
+			((CompletionStage<?>) resultado).whenComplete((valor, erro) -> 
+				(erro == null ? medidorAssincrono.sucesso : medidorAssincrono.erro).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+		} else {
+			medidor.sucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+		}
+		return resultado;
+	}
+	
+	private static class Medidores {
+	
+		final Timer sucesso;
+		final Timer erro;
+		
+		Medidores(MeterRegistry registry, Class<?> servico, Method metodo) {
+			sucesso = criar(registry, servico, metodo, "sucesso");
+			erro = criar(registry, servico, metodo, "erro");
+		}
+		
+		private static Timer criar(MeterRegistry registry, Class<?> servico, Method metodo, String resultado) {
+			return Timer.builder(NOME)
+					.tag("servico", servico.getSimpleName())
+					.tag("metodo", metodo.getName())
+					.tag("resultado", resultado)
+					.publishPercentiles(0.5, 0.99, 0.999)
+					.percentilePrecision(1)
+					.register(registry);
+		}
+	
+	}
+
+}
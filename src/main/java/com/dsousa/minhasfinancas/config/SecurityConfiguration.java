@@ -1,14 +1,21 @@
 package com.dsousa.minhasfinancas.config;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -24,6 +31,7 @@ import org.springframework.web.filter.CorsFilter;
 import com.dsousa.minhasfinancas.api.JwtTokenFilter;
 import com.dsousa.minhasfinancas.service.JwtService;
 import com.dsousa.minhasfinancas.service.impl.SecurityUserDetailsService;
+import com.dsousa.minhasfinancas.service.impl.UsuarioAutenticadoCache;
 
 @EnableWebSecurity
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
@@ -34,6 +42,18 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 	@Autowired
 	private JwtService jwtService;
 	
+	@Autowired
+	private UsuarioAutenticadoCache usuarioAutenticadoCache;
+	
+	@Value("${seguranca.jwt.stateless:false}")
+	private boolean stateless;
+	
+	@Value("${seguranca.metricas.usuario:prometheus}")
+	private String usuarioMetricas;
+	
+	@Value("${seguranca.metricas.senha:}")
+	private String senhaMetricas;
+	
 	@Bean
 	public PasswordEncoder passwordEncoder() {
 		PasswordEncoder encoder = new BCryptPasswordEncoder();
@@ -42,7 +62,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 	
 	@Bean
 	public JwtTokenFilter jwtTokenFilter() {
-		return new JwtTokenFilter(jwtService, userDetailsService);
+		return new JwtTokenFilter(jwtService, userDetailsService, usuarioAutenticadoCache, stateless);
 	}
 	
 //	
@@ -70,12 +90,34 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 			.authorizeHttpRequests()
             .antMatchers(HttpMethod.POST, "/api/usuarios/autenticar").permitAll()
             .antMatchers(HttpMethod.POST, "/api/usuarios").permitAll()
+            .antMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+            .antMatchers(HttpMethod.GET, "/actuator/prometheus")
+            	.access((autenticacao, contexto) -> new AuthorizationDecision(coletaDeMetricasAutorizada(contexto.getRequest())))
             .anyRequest().authenticated()
             .and().sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and().addFilterBefore(jwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
 		
 	}
 	
+	// o Prometheus envia a credencial estática por Basic em toda coleta, sem depender de um token de usuário
+	// que expira; o token de usuário não dá acesso às métricas, e sem senha configurada a coleta é sempre recusada
+	private boolean coletaDeMetricasAutorizada(HttpServletRequest request) {
+		String authorization = request.getHeader("Authorization");
+		if(senhaMetricas.isEmpty() || authorization == null || !authorization.startsWith("Basic ")) {
+			return false;
+		}
+		
+		byte[] recebida;
+		try {
+			recebida = Base64.getDecoder().decode(authorization.substring("Basic ".length()).trim());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		
+		byte[] esperada = (usuarioMetricas + ":" + senhaMetricas).getBytes(StandardCharsets.UTF_8);
+		return MessageDigest.isEqual(esperada, recebida);
+	}
+	
 	@Bean
 	public FilterRegistrationBean<CorsFilter> corsFilter(){
 		
@@ -1,6 +1,11 @@
 package com.dsousa.minhasfinancas.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -9,9 +14,25 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer{
 
+	@Autowired(required = false)
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor taskExecutor;
+	
+	@Value("${web.async.tempo-limite-ms:600000}")
+	private long tempoLimiteAssincrono;
+	
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
-		registry.addMapping("/**").allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
+		registry.addMapping("/**").allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+	}
+	
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		// exportações longas (StreamingResponseBody) rodam no pool do Spring e não no SimpleAsyncTaskExecutor
+		if(taskExecutor != null) {
+			configurer.setTaskExecutor(taskExecutor);
+		}
+		configurer.setDefaultTimeout(tempoLimiteAssincrono);
 	}
 	
 }
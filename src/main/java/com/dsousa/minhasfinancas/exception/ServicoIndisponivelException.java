@@ -0,0 +1,9 @@
+package com.dsousa.minhasfinancas.exception;
+
+public class ServicoIndisponivelException extends RuntimeException {
+
+	public ServicoIndisponivelException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.dsousa.minhasfinancas.exception;
+
+public class TentativasExcedidasException extends RuntimeException {
+
+	private final long segundosParaNovaTentativa;
+	
+	public TentativasExcedidasException(String message, long segundosParaNovaTentativa) {
+		super(message);
+		this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+	}
+	
+	public long getSegundosParaNovaTentativa() {
+		return segundosParaNovaTentativa;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "lancamento_arquivo", schema = "financas")
+@IdClass(ChaveArquivoLancamento.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArquivoLancamento {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Column(name = "quantidade")
+	private Integer quantidade;
+	
+	// lançamentos do ano compactados coluna a coluna
+	@Column(name = "dados")
+	private byte[] dados;
+	
+	@Column(name = "data_arquivamento")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataArquivamento;
+	
+	@Builder.Default
+	@ElementCollection
+	@CollectionTable(name = "lancamento_arquivo_total", schema = "financas", joinColumns = {
+			@JoinColumn(name = "id_usuario", referencedColumnName = "id_usuario"),
+			@JoinColumn(name = "ano", referencedColumnName = "ano")
+	})
+	private List<TotalArquivado> totais = new ArrayList<>();
+
+}
@@ -0,0 +1,19 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveArquivoLancamento implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private Long idUsuario;
+	private Integer ano;
+
+}
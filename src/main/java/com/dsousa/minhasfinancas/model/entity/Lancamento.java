@@ -8,13 +8,18 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
@@ -27,6 +32,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "lancamento", schema = "financas")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,7 +40,12 @@ import lombok.NoArgsConstructor;
 public class Lancamento {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+	@GenericGenerator(name = "lancamento_id_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "financas.lancamento_id_seq"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo")
+	})
 	@Column(name = "id")
 	private Long id;
 	
@@ -47,7 +58,7 @@ public class Lancamento {
 	@Column(name = "ano")
 	private Integer ano;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
 	private Usuario usuario;
 	
@@ -66,4 +77,8 @@ public class Lancamento {
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
 	
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+	
 }
@@ -0,0 +1,40 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalArquivado {
+
+	@Column(name = "mes")
+	private Integer mes;
+	
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	@Column(name = "valor")
+	private BigDecimal valor;
+	
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+}
@@ -0,0 +1,28 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "versao_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersaoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "versao")
+	private Long versao;
+
+}
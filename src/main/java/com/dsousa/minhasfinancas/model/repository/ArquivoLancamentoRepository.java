@@ -0,0 +1,38 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.dsousa.minhasfinancas.model.entity.ArquivoLancamento;
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+public interface ArquivoLancamentoRepository extends JpaRepository<ArquivoLancamento, ChaveArquivoLancamento>{
+
+	@Query( value = " select a.ano from ArquivoLancamento a where a.idUsuario = :idUsuario order by a.ano ")
+	List<Integer> obterAnos( @Param("idUsuario") Long idUsuario);
+	
+	// os totais respondem saldo e resumo sem descompactar os lançamentos
+	@Query( value = 
+			  " select sum(t.valor) from ArquivoLancamento a join a.totais t "
+			+ " where a.idUsuario = :idUsuario and t.tipo = :tipo and t.status = :status ")
+	BigDecimal obterSaldoPorTipoEStatus( @Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+	
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.TotalLancamento(a.ano, t.mes, t.tipo, t.status, t.valor, t.quantidade) "
+			+ " from ArquivoLancamento a join a.totais t where a.idUsuario = :idUsuario "
+			+ " order by a.ano, t.mes, t.tipo, t.status ")
+	List<TotalLancamento> obterTotaisPorMes( @Param("idUsuario") Long idUsuario);
+	
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.TotalLancamento(a.ano, t.mes, t.tipo, t.status, t.valor, t.quantidade) "
+			+ " from ArquivoLancamento a join a.totais t where a.idUsuario = :idUsuario and a.ano = :ano "
+			+ " order by a.ano, t.mes, t.tipo, t.status ")
+	List<TotalLancamento> obterTotaisPorMesNoAno( @Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+}
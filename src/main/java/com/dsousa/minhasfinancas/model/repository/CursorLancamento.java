@@ -0,0 +1,34 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+
+	private final Integer ano;
+	private final Integer mes;
+	private final Long id;
+	
+	public String codificar() {
+		String posicao = ano + ":" + mes + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static CursorLancamento decodificar(String cursor) {
+		try {
+			String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] partes = posicao.split(":");
+			return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new RegraNegocioException("Cursor de paginação inválido.");
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+// comandos nativos que não existem no H2 com a mesma sintaxe do PostgreSQL escolhem o SQL por aqui
+final class DialetoBanco {
+
+	private DialetoBanco() {
+	}
+	
+	static boolean isPostgreSQL(EntityManager entityManager) {
+		Dialect dialect = entityManager
+				.getEntityManagerFactory()
+				.unwrap(SessionFactoryImplementor.class)
+				.getJdbcServices()
+				.getDialect();
+		return dialect instanceof PostgreSQL81Dialect;
+	}
+
+}
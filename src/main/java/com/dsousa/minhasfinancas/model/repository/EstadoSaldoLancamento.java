@@ -0,0 +1,20 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EstadoSaldoLancamento {
+
+	private final Long idUsuario;
+	private final TipoLancamento tipo;
+	private final StatusLancamento status;
+	private final BigDecimal valor;
+
+}
@@ -0,0 +1,25 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LancamentoProjecao {
+
+	private final Long id;
+	private final String descricao;
+	private final Integer mes;
+	private final Integer ano;
+	private final BigDecimal valor;
+	private final Long idUsuario;
+	private final TipoLancamento tipo;
+	private final StatusLancamento status;
+	private final Long versao;
+
+}
@@ -1,19 +1,81 @@
 package com.dsousa.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long>{
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 
 	@Query( value = 
 			  " select sum(l.valor) from Lancamento l join l.usuario u "
 			+ " where u.id = :idUsuario and l.tipo = :tipo and l.status = :status group by u ")
 	BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus( @Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+		@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.LancamentoProjecao(l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario order by l.id ")
+	Stream<LancamentoProjecao> streamPorUsuario( @Param("idUsuario") Long idUsuario);
+	
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.LancamentoProjecao(l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) "
+			+ " from Lancamento l where l.id = :id ")
+	Optional<LancamentoProjecao> obterProjecaoPorId( @Param("id") Long id);
+	
+	@Query( value = " select l from Lancamento l where l.id = :id and l.usuario.id = :idUsuario ")
+	Optional<Lancamento> obterDoUsuario( @Param("id") Long id, @Param("idUsuario") Long idUsuario);
+	
+	// lê o estado gravado na base, sem descarregar antes as alterações pendentes do contexto de persistência
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.EstadoSaldoLancamento(l.usuario.id, l.tipo, l.status, l.valor) "
+			+ " from Lancamento l where l.id = :id ")
+	Optional<EstadoSaldoLancamento> obterEstadoParaSaldo( @Param("id") Long id);
+	
+	@Query( value = " select distinct l.usuario.id from Lancamento l ")
+	List<Long> obterIdsUsuariosComLancamentos();
+	
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.TotalLancamento(l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(l.id)) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario "
+			+ " group by l.ano, l.mes, l.tipo, l.status order by l.ano, l.mes, l.tipo, l.status ")
+	List<TotalLancamento> obterTotaisPorMes( @Param("idUsuario") Long idUsuario);
+	
+	@Query( value = 
+			  " select new com.dsousa.minhasfinancas.model.repository.TotalLancamento(l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(l.id)) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano "
+			+ " group by l.ano, l.mes, l.tipo, l.status order by l.ano, l.mes, l.tipo, l.status ")
+	List<TotalLancamento> obterTotaisPorMesNoAno( @Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@Query( value = " select distinct new com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento(l.usuario.id, l.ano) from Lancamento l where l.ano < :ano ")
+	List<ChaveArquivoLancamento> obterAnosAnterioresA( @Param("ano") Integer ano);
+	
+	// bloqueia as linhas até o fim do arquivamento, para nenhuma alteração concorrente se perder
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query( value = " select l from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano order by l.id ")
+	List<Lancamento> obterParaArquivamento( @Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query( value = " delete from Lancamento l where l.ano = :ano and l.id in :ids ")
+	int deletarArquivados( @Param("ano") Integer ano, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+
+public interface LancamentoRepositoryCustom {
+
+	List<LancamentoProjecao> buscarPagina(Lancamento filtro, CursorLancamento cursor, int limite);
+	
+	List<LancamentoProjecao> listar(Lancamento filtro);
+	
+	List<EstadoSaldoLancamento> atualizarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status);
+	
+	List<EstadoSaldoLancamento> atualizarStatus(Lancamento filtro, StatusLancamento status);
+	
+	Optional<StatusAlteradoLancamento> atualizarStatusDoUsuario(Long id, Long idUsuario, StatusLancamento status);
+	
+	Optional<EstadoSaldoLancamento> deletarDoUsuario(Long id, Long idUsuario);
+	
+	void inserirEmLote(List<Lancamento> lancamentos);
+	
+	List<Lancamento> pesquisarPorDescricao(Long idUsuario, List<String> termos, int limite);
+	
+	int criarParticoes(int anoInicial, int anoFinal);
+
+}
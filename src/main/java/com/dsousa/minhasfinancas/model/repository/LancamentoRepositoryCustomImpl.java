@@ -0,0 +1,348 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+public class LancamentoRepositoryCustomImpl implements LancamentoRepositoryCustom {
+
+	private static final char ESCAPE = '\\';
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int tamanhoLote;
+	
+	private Boolean postgreSQL;
+	
+	@Override
+	public List<LancamentoProjecao> buscarPagina(Lancamento filtro, CursorLancamento cursor, int limite) {
+		return entityManager
+				.createQuery(criarConsultaProjetada(filtro, cursor))
+				.setMaxResults(limite)
+				.getResultList();
+	}
+	
+	@Override
+	public List<LancamentoProjecao> listar(Lancamento filtro) {
+		return entityManager
+				.createQuery(criarConsultaProjetada(filtro, null))
+				.getResultList();
+	}
+	
+	@Override
+	public List<EstadoSaldoLancamento> atualizarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status) {
+		Map<String, Object> parametros = new HashMap<>();
+		parametros.put("idUsuario", idUsuario);
+		parametros.put("ids", ids);
+		return atualizarStatus(" id_usuario = :idUsuario and id in (:ids) ", parametros, status);
+	}
+	
+	@Override
+	public List<EstadoSaldoLancamento> atualizarStatus(Lancamento filtro, StatusLancamento status) {
+		// os mesmos filtros de criarFiltros, escritos em SQL para o update com RETURNING / OLD TABLE
+		List<String> condicoes = new ArrayList<>();
+		Map<String, Object> parametros = new HashMap<>();
+		
+		if(filtro.getUsuario() != null && filtro.getUsuario().getId() != null) {
+			condicoes.add("id_usuario = :idUsuario");
+			parametros.put("idUsuario", filtro.getUsuario().getId());
+		}
+		
+		if(filtro.getDescricao() != null) {
+			condicoes.add("lower(descricao) like :descricao");
+			parametros.put("descricao", "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%");
+		}
+		
+		if(filtro.getMes() != null) {
+			condicoes.add("mes = :mes");
+			parametros.put("mes", filtro.getMes());
+		}
+		
+		if(filtro.getAno() != null) {
+			condicoes.add("ano = :ano");
+			parametros.put("ano", filtro.getAno());
+		}
+		
+		if(filtro.getTipo() != null) {
+			condicoes.add("tipo = :tipo");
+			parametros.put("tipo", filtro.getTipo().name());
+		}
+		
+		if(filtro.getStatus() != null) {
+			condicoes.add("status = :statusFiltro");
+			parametros.put("statusFiltro", filtro.getStatus().name());
+		}
+		
+		String condicao = condicoes.isEmpty() ? " 1 = 1 " : " " + String.join(" and ", condicoes) + " ";
+		return atualizarStatus(condicao, parametros, status);
+	}
+	
+	// os dois comandos abaixo alteram o lançamento do usuário e devolvem o estado anterior na mesma
+	// ida à base: RETURNING no PostgreSQL e OLD TABLE no H2
+	@Override
+	@SuppressWarnings("unchecked")
+	public Optional<StatusAlteradoLancamento> atualizarStatusDoUsuario(Long id, Long idUsuario, StatusLancamento status) {
+		// um lançamento já no status pedido não é alterado nem tem a versão incrementada; as colunas
+		// devolvidas são a linha nova, exceto pelo status, que é o anterior (o novo é sempre :status)
+		String sql = isPostgreSQL()
+				? " update financas.lancamento l set status = :status, versao = l.versao + 1 "
+					+ " from (select id, status from financas.lancamento "
+					+ "   where id = :id and id_usuario = :idUsuario and status <> :status for update) anterior "
+					+ " where l.id = anterior.id "
+					+ " returning l.id, l.descricao, l.mes, l.ano, l.valor, l.tipo, anterior.status, l.versao "
+				: " select id, descricao, mes, ano, valor, tipo, status, versao + 1 "
+					+ " from old table (update financas.lancamento set status = :status, versao = versao + 1 "
+					+ " where id = :id and id_usuario = :idUsuario and status <> :status) ";
+		entityManager.flush();
+		List<Object[]> linhas = entityManager.createNativeQuery(sql)
+				.setParameter("status", status.name())
+				.setParameter("id", id)
+				.setParameter("idUsuario", idUsuario)
+				.getResultList();
+		
+		entityManager.clear();
+		if(linhas.isEmpty()) {
+			return Optional.empty();
+		}
+		
+		// a linha devolvida vira uma projeção: nenhuma entidade nem referência ao usuário que a resposta inicializaria
+		Object[] linha = linhas.get(0);
+		LancamentoProjecao lancamento = new LancamentoProjecao(
+				((Number) linha[0]).longValue(),
+				(String) linha[1],
+				((Number) linha[2]).intValue(),
+				((Number) linha[3]).intValue(),
+				(BigDecimal) linha[4],
+				idUsuario,
+				TipoLancamento.valueOf(linha[5].toString()),
+				status,
+				((Number) linha[7]).longValue());
+		return Optional.of(new StatusAlteradoLancamento(lancamento, StatusLancamento.valueOf(linha[6].toString())));
+	}
+	
+	// o update em lote devolve o estado anterior de cada linha que ele próprio alterou e travou: o saldo
+	// é ajustado por essas linhas, e não por uma leitura anterior que um commit concorrente invalidaria
+	@SuppressWarnings("unchecked")
+	private List<EstadoSaldoLancamento> atualizarStatus(String condicao, Map<String, Object> parametros, StatusLancamento status) {
+		String sql = isPostgreSQL()
+				? " update financas.lancamento l set status = :status, versao = l.versao + 1 "
+					+ " from (select id, ano, status from financas.lancamento "
+					+ "   where " + condicao + " and status <> :status for update) anterior "
+					+ " where l.id = anterior.id and l.ano = anterior.ano "
+					+ " returning l.id_usuario, l.tipo, anterior.status, l.valor "
+				: " select id_usuario, tipo, status, valor "
+					+ " from old table (update financas.lancamento set status = :status, versao = versao + 1 "
+					+ " where " + condicao + " and status <> :status) ";
+		entityManager.flush();
+		Query query = entityManager.createNativeQuery(sql).setParameter("status", status.name());
+		parametros.forEach(query::setParameter);
+		List<Object[]> linhas = query.getResultList();
+		
+		// o update não passa pelo contexto de persistência; entidades já carregadas ficariam com o status antigo
+		entityManager.clear();
+		return linhas.stream()
+				.map(linha -> new EstadoSaldoLancamento(((Number) linha[0]).longValue(),
+						linha[1] == null ? null : TipoLancamento.valueOf(linha[1].toString()),
+						linha[2] == null ? null : StatusLancamento.valueOf(linha[2].toString()),
+						(BigDecimal) linha[3]))
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	public Optional<EstadoSaldoLancamento> deletarDoUsuario(Long id, Long idUsuario) {
+		String sql = isPostgreSQL()
+				? " delete from financas.lancamento where id = :id and id_usuario = :idUsuario returning tipo, status, valor "
+				: " select tipo, status, valor from old table (delete from financas.lancamento where id = :id and id_usuario = :idUsuario) ";
+		return alterarDoUsuario(entityManager.createNativeQuery(sql), id, idUsuario);
+	}
+	
+	@Override
+	public void inserirEmLote(List<Lancamento> lancamentos) {
+		for(int i = 0; i < lancamentos.size(); i++) {
+			entityManager.persist(lancamentos.get(i));
+			
+			// um flush por lote do JDBC, limpando o contexto para não acumular milhares de entidades gerenciadas
+			if((i + 1) % tamanhoLote == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Lancamento> pesquisarPorDescricao(Long idUsuario, List<String> termos, int limite) {
+		String consulta = String.join(" ", termos);
+		
+		// lower(descricao) like '%termo%' é servido pelo índice de trigramas no PostgreSQL e, no H2, pelo índice (id_usuario, descricao);
+		// tanto o PostgreSQL quanto o H2 já usam '\' como escape padrão do like
+		StringBuilder sql = new StringBuilder("select l.* from financas.lancamento l where l.id_usuario = :idUsuario ");
+		for(int i = 0; i < termos.size(); i++) {
+			sql.append(" and lower(l.descricao) like :termo").append(i).append(" ");
+		}
+		
+		if(isPostgreSQL()) {
+			sql.append(" order by similarity(lower(l.descricao), :consulta) desc, l.id ");
+		} else {
+			sql.append(" order by case when lower(l.descricao) = :consulta then 0 ")
+				.append(" when lower(l.descricao) like :prefixo then 1 else 2 end, length(l.descricao), l.id ");
+		}
+		
+		Query query = entityManager
+				.createNativeQuery(sql.toString(), Lancamento.class)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("consulta", consulta)
+				.setMaxResults(limite);
+		
+		for(int i = 0; i < termos.size(); i++) {
+			query.setParameter("termo" + i, "%" + escaparLike(termos.get(i)) + "%");
+		}
+		
+		if(!isPostgreSQL()) {
+			query.setParameter("prefixo", escaparLike(consulta) + "%");
+		}
+		
+		return query.getResultList();
+	}
+	
+	private CriteriaQuery<LancamentoProjecao> criarConsultaProjetada(Lancamento filtro, CursorLancamento cursor) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoProjecao> query = cb.createQuery(LancamentoProjecao.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		// usuario.id é lido da própria coluna id_usuario, sem join e sem carregar entidades
+		query.select(cb.construct(LancamentoProjecao.class, 
+				root.get("id"), root.get("descricao"), root.get("mes"), root.get("ano"), root.get("valor"),
+				root.get("usuario").get("id"), root.get("tipo"), root.get("status"), root.get("versao")));
+		
+		List<Predicate> predicados = criarFiltros(cb, root, filtro);
+		if(cursor != null) {
+			predicados.add(posteriorAoCursor(cb, root, cursor));
+		}
+		
+		return query.where(predicados.toArray(new Predicate[0]))
+			.orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+	}
+	
+	private List<Predicate> criarFiltros(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro) {
+		List<Predicate> predicados = new ArrayList<>();
+		
+		if(filtro.getUsuario() != null && filtro.getUsuario().getId() != null) {
+			predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+		}
+		
+		if(filtro.getDescricao() != null) {
+			String padrao = "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%";
+			predicados.add(cb.like(cb.lower(root.get("descricao")), padrao, ESCAPE));
+		}
+		
+		if(filtro.getMes() != null) {
+			predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+		}
+		
+		if(filtro.getAno() != null) {
+			predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+		}
+		
+		if(filtro.getTipo() != null) {
+			predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+		}
+		
+		if(filtro.getStatus() != null) {
+			predicados.add(cb.equal(root.get("status"), filtro.getStatus()));
+		}
+		
+		return predicados;
+	}
+	
+	@Override
+	public int criarParticoes(int anoInicial, int anoFinal) {
+		// só o PostgreSQL é particionado; no H2 a tabela continua única
+		if(!isPostgreSQL()) {
+			return 0;
+		}
+		
+		Number criadas = (Number) entityManager
+				.createNativeQuery("select financas.criar_particoes_lancamento(:anoInicial, :anoFinal)")
+				.setParameter("anoInicial", anoInicial)
+				.setParameter("anoFinal", anoFinal)
+				.getSingleResult();
+		return criadas.intValue();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Optional<EstadoSaldoLancamento> alterarDoUsuario(Query query, Long id, Long idUsuario) {
+		entityManager.flush();
+		List<Object[]> linhas = query
+				.setParameter("id", id)
+				.setParameter("idUsuario", idUsuario)
+				.getResultList();
+		
+		// assim como nos updates em lote, o comando não passa pelo contexto de persistência
+		entityManager.clear();
+		if(linhas.isEmpty()) {
+			return Optional.empty();
+		}
+		
+		Object[] linha = linhas.get(0);
+		return Optional.of(new EstadoSaldoLancamento(idUsuario,
+				linha[0] == null ? null : TipoLancamento.valueOf(linha[0].toString()),
+				linha[1] == null ? null : StatusLancamento.valueOf(linha[1].toString()),
+				(BigDecimal) linha[2]));
+	}
+	
+	private Predicate posteriorAoCursor(CriteriaBuilder cb, Root<Lancamento> root, CursorLancamento cursor) {
+		Path<Integer> ano = root.get("ano");
+		Path<Integer> mes = root.get("mes");
+		Path<Long> id = root.get("id");
+		
+		// (ano, mes, id) > (:ano, :mes, :id), com o limite inferior de ano explícito para o índice
+		return cb.and(
+				cb.greaterThanOrEqualTo(ano, cursor.getAno()),
+				cb.or(
+					cb.greaterThan(ano, cursor.getAno()),
+					cb.and(cb.equal(ano, cursor.getAno()),
+						cb.or(
+							cb.greaterThan(mes, cursor.getMes()),
+							cb.and(cb.equal(mes, cursor.getMes()), cb.greaterThan(id, cursor.getId()))))));
+	}
+	
+	private boolean isPostgreSQL() {
+		if(postgreSQL == null) {
+			postgreSQL = DialetoBanco.isPostgreSQL(entityManager);
+		}
+		return postgreSQL;
+	}
+	
+	private String escaparLike(String valor) {
+		return valor
+				.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom{
+
+	@Modifying
+	@Query( value = " update SaldoUsuario s set s.saldo = s.saldo + :valor where s.idUsuario = :idUsuario ")
+	int adicionar( @Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor);
+
+}
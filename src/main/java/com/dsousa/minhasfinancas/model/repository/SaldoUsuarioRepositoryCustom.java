@@ -0,0 +1,9 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+	void criarOuAdicionar(Long idUsuario, BigDecimal saldo, BigDecimal valor);
+
+}
@@ -0,0 +1,41 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class SaldoUsuarioRepositoryCustomImpl implements SaldoUsuarioRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private Boolean postgreSQL;
+	
+	// cria o saldo com o valor informado; se outra transação acabou de criá-lo, soma apenas a variação.
+	// um único comando, então duas primeiras escritas concorrentes não disputam a chave primária
+	@Override
+	public void criarOuAdicionar(Long idUsuario, BigDecimal saldo, BigDecimal valor) {
+		String sql = isPostgreSQL()
+				? " insert into financas.saldo_usuario (id_usuario, saldo) values (:idUsuario, :saldo) "
+					+ " on conflict (id_usuario) do update set saldo = saldo_usuario.saldo + :valor "
+				: " merge into financas.saldo_usuario s "
+					+ " using (select cast(:idUsuario as bigint) id_usuario, cast(:saldo as numeric(16,2)) saldo) n "
+					+ " on s.id_usuario = n.id_usuario "
+					+ " when matched then update set saldo = s.saldo + :valor "
+					+ " when not matched then insert (id_usuario, saldo) values (n.id_usuario, n.saldo) ";
+		entityManager.createNativeQuery(sql)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("saldo", saldo)
+				.setParameter("valor", valor)
+				.executeUpdate();
+	}
+	
+	private boolean isPostgreSQL() {
+		if(postgreSQL == null) {
+			postgreSQL = DialetoBanco.isPostgreSQL(entityManager);
+		}
+		return postgreSQL;
+	}
+
+}
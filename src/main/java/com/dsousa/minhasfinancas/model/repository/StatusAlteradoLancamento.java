@@ -0,0 +1,15 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StatusAlteradoLancamento {
+
+	private final LancamentoProjecao lancamento;
+	private final StatusLancamento statusAnterior;
+
+}
@@ -2,14 +2,20 @@ package com.dsousa.minhasfinancas.model.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long>{
 
+	// cache de consulta: invalidado pelo Hibernate a cada escrita na tabela usuario
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	boolean existsByEmail(String email);
 	
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Optional<Usuario> findByEmail(String email);
 	
 	
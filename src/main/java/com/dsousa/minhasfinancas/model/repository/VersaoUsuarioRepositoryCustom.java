@@ -0,0 +1,7 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+public interface VersaoUsuarioRepositoryCustom {
+
+	void criarOuIncrementar(Long idUsuario);
+
+}
@@ -0,0 +1,37 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class VersaoUsuarioRepositoryCustomImpl implements VersaoUsuarioRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private Boolean postgreSQL;
+	
+	// primeira escrita do usuário: cria a versão 1 ou, se outra transação acabou de criá-la, incrementa.
+	// assim como no saldo, um único comando evita a disputa pela chave primária
+	@Override
+	public void criarOuIncrementar(Long idUsuario) {
+		String sql = isPostgreSQL()
+				? " insert into financas.versao_usuario (id_usuario, versao) values (:idUsuario, 1) "
+					+ " on conflict (id_usuario) do update set versao = versao_usuario.versao + 1 "
+				: " merge into financas.versao_usuario v "
+					+ " using (select cast(:idUsuario as bigint) id_usuario) n "
+					+ " on v.id_usuario = n.id_usuario "
+					+ " when matched then update set versao = v.versao + 1 "
+					+ " when not matched then insert (id_usuario, versao) values (n.id_usuario, 1) ";
+		entityManager.createNativeQuery(sql)
+				.setParameter("idUsuario", idUsuario)
+				.executeUpdate();
+	}
+	
+	private boolean isPostgreSQL() {
+		if(postgreSQL == null) {
+			postgreSQL = DialetoBanco.isPostgreSQL(entityManager);
+		}
+		return postgreSQL;
+	}
+
+}
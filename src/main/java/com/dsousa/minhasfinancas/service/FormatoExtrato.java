@@ -0,0 +1,56 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+
+public enum FormatoExtrato {
+
+	CSV {
+		@Override
+		public int ler(Reader extrato, Consumer<LinhaExtrato> consumidor) throws IOException {
+			return new LeitorCsv(extrato).ler(consumidor);
+		}
+	},
+	
+	OFX {
+		@Override
+		public int ler(Reader extrato, Consumer<LinhaExtrato> consumidor) throws IOException {
+			return new LeitorOfx(extrato).ler(consumidor);
+		}
+	};
+	
+	// entrega cada transação ao consumidor sem manter o arquivo em memória; retorna quantas linhas foram descartadas
+	public abstract int ler(Reader extrato, Consumer<LinhaExtrato> consumidor) throws IOException;
+	
+	public static FormatoExtrato de(String formato) {
+		if(formato == null) {
+			throw new RegraNegocioException("Informe o formato do extrato: csv ou ofx.");
+		}
+		
+		try {
+			return valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Formato de extrato inválido, utilize csv ou ofx.");
+		}
+	}
+	
+	static BigDecimal converterValor(String valor) {
+		String texto = valor.trim().replace(" ", "");
+		int ultimaVirgula = texto.lastIndexOf(',');
+		int ultimoPonto = texto.lastIndexOf('.');
+		
+		// aceita tanto 1.234,56 quanto 1,234.56: o último separador é o decimal
+		if(ultimaVirgula > ultimoPonto) {
+			texto = texto.replace(".", "").replace(',', '.');
+		} else {
+			texto = texto.replace(",", "");
+		}
+		
+		return new BigDecimal(texto);
+	}
+
+}
@@ -0,0 +1,10 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ImportacaoService {
+
+	ResultadoImportacao importar(Long idUsuario, FormatoExtrato formato, Reader extrato) throws IOException;
+
+}
@@ -1,5 +1,7 @@
 package com.dsousa.minhasfinancas.service;
 
+import java.util.Optional;
+
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 
 import io.jsonwebtoken.Claims;
@@ -14,4 +16,6 @@ public interface JwtService {
 	boolean isTokenValido(String token);
 	
 	String obterLoginUsuario(String token);
+	
+	Optional<TokenVerificado> verificarToken(String token);
 }
@@ -3,25 +3,66 @@ package com.dsousa.minhasfinancas.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
 
 public interface LancamentoService {
 	
 	Lancamento salvar(Lancamento lancamento);
 	
+	int salvarEmLote(List<Lancamento> lancamentos);
+	
 	Lancamento atualizar(Lancamento lancamento);
 	
+	Optional<Lancamento> atualizarParcialmente(Long id, Long idUsuario, Lancamento alteracoes);
+	
 	void deletar(Lancamento lancamento);
 	
+	boolean deletar(Long id, Long idUsuario);
+	
 	List<Lancamento> buscar(Lancamento lancamentofiltro);
 	
+	List<LancamentoProjecao> listar(Lancamento lancamentofiltro);
+	
+	Pagina<LancamentoProjecao> buscarPagina(Lancamento lancamentofiltro, String cursor, int tamanho);
+	
+	List<Lancamento> pesquisar(Long idUsuario, String consulta, int limite);
+	
+	void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor);
+	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 	
+	Optional<LancamentoProjecao> atualizarStatus(Long id, Long idUsuario, StatusLancamento status);
+	
+	int atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status);
+	
+	int atualizarStatusPorFiltro(Lancamento lancamentofiltro, StatusLancamento status);
+	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> obterPorId(Long id);
 	
+	Optional<LancamentoProjecao> obterProjecaoPorId(Long id);
+	
+	Optional<LancamentoProjecao> obterArquivadoPorId(Long id, Long idUsuario);
+	
+	List<LancamentoProjecao> obterArquivados(Long idUsuario, Integer ano);
+	
 	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	long obterVersao(Long idUsuario);
+	
+	List<ResumoMensal> obterResumoMensal(Long idUsuario, Integer ano);
+	
+	boolean reconciliarSaldo(Long idUsuario);
+	
+	int reconciliarSaldos();
+	
+	List<ChaveArquivoLancamento> obterAnosParaArquivar();
+	
+	int arquivar(Long idUsuario, Integer ano);
 }
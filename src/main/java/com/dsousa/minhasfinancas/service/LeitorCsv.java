@@ -0,0 +1,137 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+
+class LeitorCsv {
+
+	private static final DateTimeFormatter FORMATO_DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
+	private final BufferedReader leitor;
+	private char separador;
+	private int colunaData = -1;
+	private int colunaDescricao = -1;
+	private int colunaValor = -1;
+	
+	LeitorCsv(Reader extrato) {
+		this.leitor = new BufferedReader(extrato);
+	}
+	
+	int ler(Consumer<LinhaExtrato> consumidor) throws IOException {
+		String cabecalho = proximaLinhaPreenchida();
+		if(cabecalho == null) {
+			return 0;
+		}
+		lerCabecalho(cabecalho);
+		
+		int invalidas = 0;
+		String linha;
+		while((linha = proximaLinhaPreenchida()) != null) {
+			try {
+				List<String> campos = separar(linha);
+				consumidor.accept(new LinhaExtrato(
+						converterData(campos.get(colunaData)),
+						campos.get(colunaDescricao).trim(),
+						FormatoExtrato.converterValor(campos.get(colunaValor))));
+			} catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+				invalidas++;
+			}
+		}
+		return invalidas;
+	}
+	
+	private void lerCabecalho(String cabecalho) {
+		separador = contar(cabecalho, ';') > contar(cabecalho, ',') ? ';' : ',';
+		
+		List<String> colunas = separar(cabecalho);
+		for(int i = 0; i < colunas.size(); i++) {
+			switch(normalizar(colunas.get(i))) {
+				case "data":
+				case "date":
+					colunaData = i;
+					break;
+				case "descricao":
+				case "historico":
+				case "description":
+					colunaDescricao = i;
+					break;
+				case "valor":
+				case "value":
+				case "amount":
+					colunaValor = i;
+					break;
+				default:
+					break;
+			}
+		}
+		
+		if(colunaData < 0 || colunaDescricao < 0 || colunaValor < 0) {
+			throw new RegraNegocioException("Cabeçalho do CSV inválido, informe as colunas data, descricao e valor.");
+		}
+	}
+	
+	private String proximaLinhaPreenchida() throws IOException {
+		String linha;
+		while((linha = leitor.readLine()) != null) {
+			if(!linha.trim().isEmpty()) {
+				return linha;
+			}
+		}
+		return null;
+	}
+	
+	private List<String> separar(String linha) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+		
+		for(int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if(c == '"') {
+				if(entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else {
+					entreAspas = !entreAspas;
+				}
+			} else if(c == separador && !entreAspas) {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		campos.add(campo.toString());
+		return campos;
+	}
+	
+	private LocalDate converterData(String data) {
+		String texto = data.trim();
+		return texto.indexOf('/') > 0 ? LocalDate.parse(texto, FORMATO_DATA_BR) : LocalDate.parse(texto);
+	}
+	
+	private static String normalizar(String coluna) {
+		return Normalizer.normalize(coluna.trim().toLowerCase(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+	}
+	
+	private static int contar(String texto, char caractere) {
+		int quantidade = 0;
+		for(int i = 0; i < texto.length(); i++) {
+			if(texto.charAt(i) == caractere) {
+				quantidade++;
+			}
+		}
+		return quantidade;
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+class LeitorOfx {
+
+	private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.BASIC_ISO_DATE;
+	
+	private final Reader extrato;
+	
+	private LocalDate data;
+	private BigDecimal valor;
+	private String memo;
+	private String nome;
+	private boolean invalida;
+	
+	LeitorOfx(Reader extrato) {
+		this.extrato = extrato;
+	}
+	
+	int ler(Consumer<LinhaExtrato> consumidor) throws IOException {
+		// o OFX 1.x é SGML e não fecha as tags de valor, então cada "<" inicia um novo elemento
+		Scanner scanner = new Scanner(extrato).useDelimiter("<");
+		boolean emTransacao = false;
+		int invalidas = 0;
+		
+		while(scanner.hasNext()) {
+			String elemento = scanner.next();
+			int fimTag = elemento.indexOf('>');
+			if(fimTag < 0) {
+				continue;
+			}
+			
+			String tag = elemento.substring(0, fimTag).trim().toUpperCase();
+			String conteudo = elemento.substring(fimTag + 1).trim();
+			
+			if(tag.equals("STMTTRN")) {
+				emTransacao = true;
+				limpar();
+			} else if(tag.equals("/STMTTRN")) {
+				if(emTransacao) {
+					if(invalida || data == null || valor == null) {
+						invalidas++;
+					} else {
+						consumidor.accept(new LinhaExtrato(data, memo != null ? memo : nome == null ? "" : nome, valor));
+					}
+				}
+				emTransacao = false;
+			} else if(emTransacao) {
+				lerCampo(tag, conteudo);
+			}
+		}
+		
+		if(scanner.ioException() != null) {
+			throw scanner.ioException();
+		}
+		return invalidas;
+	}
+	
+	private void lerCampo(String tag, String conteudo) {
+		try {
+			switch(tag) {
+				case "DTPOSTED":
+					// 20230105120000[-3:BRT]: apenas a data interessa
+					data = LocalDate.parse(conteudo.substring(0, 8), FORMATO_DATA);
+					break;
+				case "TRNAMT":
+					valor = FormatoExtrato.converterValor(conteudo);
+					break;
+				case "MEMO":
+					memo = conteudo;
+					break;
+				case "NAME":
+					nome = conteudo;
+					break;
+				default:
+					break;
+			}
+		} catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+			invalida = true;
+		}
+	}
+	
+	private void limpar() {
+		data = null;
+		valor = null;
+		memo = null;
+		nome = null;
+		invalida = false;
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LinhaExtrato {
+
+	private final LocalDate data;
+	private final String descricao;
+	private final BigDecimal valor;
+
+}
@@ -0,0 +1,21 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class Pagina<T> {
+
+	private final List<T> itens;
+	private final String proximaPagina;
+	
+	public <R> Pagina<R> map(Function<T, R> conversor) {
+		return new Pagina<>(itens.stream().map(conversor).collect(Collectors.toList()), proximaPagina);
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.dsousa.minhasfinancas.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoImportacao {
+
+	private final int lidos;
+	private final int importados;
+	private final int duplicados;
+	private final int invalidos;
+
+}
@@ -0,0 +1,62 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.TotalLancamento;
+
+import lombok.Getter;
+
+@Getter
+public class ResumoMensal {
+
+	private final Integer ano;
+	private final Integer mes;
+	private BigDecimal receitas = BigDecimal.ZERO;
+	private BigDecimal despesas = BigDecimal.ZERO;
+	private final List<TotalLancamento> totais = new ArrayList<>();
+	
+	public ResumoMensal(Integer ano, Integer mes) {
+		this.ano = ano;
+		this.mes = mes;
+	}
+	
+	public BigDecimal getSaldo() {
+		return receitas.subtract(despesas);
+	}
+	
+	void adicionar(TotalLancamento total) {
+		totais.add(total);
+		
+		// receitas, despesas e saldo seguem a mesma regra do saldo do usuário: apenas lançamentos efetivados
+		if(total.getStatus() != StatusLancamento.EFETIVADO || total.getValor() == null) {
+			return;
+		}
+		
+		if(total.getTipo() == TipoLancamento.RECEITA) {
+			receitas = receitas.add(total.getValor());
+		} else {
+			despesas = despesas.add(total.getValor());
+		}
+	}
+	
+	public static List<ResumoMensal> agrupar(List<TotalLancamento> totais) {
+		List<ResumoMensal> resumos = new ArrayList<>();
+		ResumoMensal atual = null;
+		
+		// os totais chegam ordenados por ano e mês, então cada mês é um bloco contíguo
+		for(TotalLancamento total : totais) {
+			if(atual == null || !atual.getAno().equals(total.getAno()) || !atual.getMes().equals(total.getMes())) {
+				atual = new ResumoMensal(total.getAno(), total.getMes());
+				resumos.add(atual);
+			}
+			atual.adicionar(total);
+		}
+		
+		return resumos;
+	}
+
+}
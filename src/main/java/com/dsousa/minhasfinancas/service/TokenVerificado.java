@@ -0,0 +1,17 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TokenVerificado {
+
+	private final String login;
+	private final Long idUsuario;
+	private final String nome;
+	private final Date expiracao;
+	
+}
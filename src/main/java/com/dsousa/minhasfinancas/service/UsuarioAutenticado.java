@@ -0,0 +1,70 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UsuarioAutenticado implements UserDetails {
+
+	private static final Collection<GrantedAuthority> AUTORIZACOES = 
+			Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+	
+	private final Long id;
+	private final String nome;
+	private final String email;
+	private final String senha;
+	
+	public static UsuarioAutenticado de(Usuario usuario) {
+		return new UsuarioAutenticado(usuario.getId(), usuario.getNome(), usuario.getEmail(), usuario.getSenha());
+	}
+	
+	public static UsuarioAutenticado de(TokenVerificado token) {
+		return new UsuarioAutenticado(token.getIdUsuario(), token.getNome(), token.getLogin(), null);
+	}
+	
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return AUTORIZACOES;
+	}
+	
+	@Override
+	public String getPassword() {
+		return senha;
+	}
+	
+	@Override
+	public String getUsername() {
+		return email;
+	}
+	
+	@Override
+	public boolean isAccountNonExpired() {
+		return true;
+	}
+	
+	@Override
+	public boolean isAccountNonLocked() {
+		return true;
+	}
+	
+	@Override
+	public boolean isCredentialsNonExpired() {
+		return true;
+	}
+	
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.dsousa.minhasfinancas.service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 
@@ -10,8 +11,18 @@ public interface UsuarioService {
 	
 	Usuario salvarUsuario(Usuario usuario);
 	
+	CompletableFuture<Usuario> autenticarAssincrono(String email, String senha, String enderecoCliente);
+	
+	CompletableFuture<Usuario> criptografarSenha(Usuario usuario);
+	
+	Usuario salvarUsuarioCriptografado(Usuario usuario);
+	
 	void validarEmail(String email);
 	
 	Optional<Usuario> obterPorId(Long id);
 	
+	Usuario obterReferencia(Long id);
+	
+	boolean existe(Long id);
+	
 }
@@ -0,0 +1,28 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+@Component
+public class ArquivamentoLancamento {
+
+	private final LancamentoService service;
+	
+	public ArquivamentoLancamento(LancamentoService service) {
+		this.service = service;
+	}
+	
+	// cada usuário e ano é arquivado na sua própria transação, que bloqueia apenas aquelas linhas
+	@Scheduled(cron = "${lancamento.arquivo.cron:0 0 4 * * *}")
+	public int arquivarAnosFechados() {
+		int arquivados = 0;
+		for(ChaveArquivoLancamento chave : service.obterAnosParaArquivar()) {
+			arquivados += service.arquivar(chave.getIdUsuario(), chave.getAno());
+		}
+		return arquivados;
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+// lançamentos de um usuário e ano gravados coluna a coluna: valores parecidos ficam lado a lado
+// e o gzip os compacta bem melhor do que linha a linha
+final class CodificadorArquivo {
+
+	private static final int FORMATO = 1;
+	private static final int ESCALA_VALOR = 2;
+	private static final long SEM_DATA = Long.MIN_VALUE;
+	private static final long SEM_VERSAO = -1;
+	
+	private CodificadorArquivo() {
+	}
+	
+	// espera os lançamentos ordenados por id, que é gravado como diferença para o anterior
+	static byte[] compactar(List<Lancamento> lancamentos) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream saida = new DataOutputStream(new GZIPOutputStream(bytes))) {
+			saida.writeInt(FORMATO);
+			saida.writeInt(lancamentos.size());
+			
+			long idAnterior = 0;
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeLong(lancamento.getId() - idAnterior);
+				idAnterior = lancamento.getId();
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeByte(lancamento.getMes());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeLong(lancamento.getValor().setScale(ESCALA_VALOR).unscaledValue().longValueExact());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeUTF(lancamento.getTipo() == null ? "" : lancamento.getTipo().name());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeUTF(lancamento.getStatus() == null ? "" : lancamento.getStatus().name());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeLong(lancamento.getDataCadastro() == null ? SEM_DATA : lancamento.getDataCadastro().toEpochDay());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeLong(lancamento.getVersao() == null ? SEM_VERSAO : lancamento.getVersao());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				saida.writeUTF(lancamento.getDescricao() == null ? "" : lancamento.getDescricao());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+	
+	static List<Lancamento> descompactar(byte[] dados, Long idUsuario, Integer ano) {
+		try(DataInputStream entrada = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(dados)))) {
+			int formato = entrada.readInt();
+			if(formato != FORMATO) {
+				throw new IllegalStateException("Formato de arquivo de lançamentos desconhecido: " + formato);
+			}
+			
+			int quantidade = entrada.readInt();
+			Usuario usuario = Usuario.builder().id(idUsuario).build();
+			List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+			
+			long id = 0;
+			for(int i = 0; i < quantidade; i++) {
+				id += entrada.readLong();
+				lancamentos.add(Lancamento.builder().id(id).ano(ano).usuario(usuario).build());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				lancamento.setMes((int) entrada.readByte());
+			}
+			for(Lancamento lancamento : lancamentos) {
+				lancamento.setValor(BigDecimal.valueOf(entrada.readLong(), ESCALA_VALOR));
+			}
+			for(Lancamento lancamento : lancamentos) {
+				String tipo = entrada.readUTF();
+				lancamento.setTipo(tipo.isEmpty() ? null : TipoLancamento.valueOf(tipo));
+			}
+			for(Lancamento lancamento : lancamentos) {
+				String status = entrada.readUTF();
+				lancamento.setStatus(status.isEmpty() ? null : StatusLancamento.valueOf(status));
+			}
+			for(Lancamento lancamento : lancamentos) {
+				long dataCadastro = entrada.readLong();
+				lancamento.setDataCadastro(dataCadastro == SEM_DATA ? null : LocalDate.ofEpochDay(dataCadastro));
+			}
+			for(Lancamento lancamento : lancamentos) {
+				long versao = entrada.readLong();
+				lancamento.setVersao(versao == SEM_VERSAO ? null : versao);
+			}
+			for(Lancamento lancamento : lancamentos) {
+				// descrição vazia não passa na validação, então vazio só pode ter sido gravado no lugar de null
+				String descricao = entrada.readUTF();
+				lancamento.setDescricao(descricao.isEmpty() ? null : descricao);
+			}
+			return lancamentos;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
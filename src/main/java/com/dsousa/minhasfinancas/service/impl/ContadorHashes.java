@@ -0,0 +1,77 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+// multiconjunto de hashes de 64 bits em arrays primitivos: cerca de 12 bytes por lançamento, sem boxing
+class ContadorHashes {
+
+	private static final long VAZIO = 0L;
+	
+	private long[] hashes;
+	private int[] contagens;
+	private int tamanho;
+	
+	ContadorHashes() {
+		this(1024);
+	}
+	
+	ContadorHashes(int capacidadeInicial) {
+		int capacidade = Integer.highestOneBit(Math.max(capacidadeInicial, 16) - 1) << 1;
+		hashes = new long[capacidade];
+		contagens = new int[capacidade];
+	}
+	
+	void adicionar(long hash) {
+		if((tamanho + 1) * 2 > hashes.length) {
+			redimensionar();
+		}
+		
+		int posicao = localizar(normalizar(hash), hashes);
+		if(hashes[posicao] == VAZIO) {
+			hashes[posicao] = normalizar(hash);
+			tamanho++;
+		}
+		contagens[posicao]++;
+	}
+	
+	// consome uma ocorrência do hash, retornando false quando não há mais nenhuma
+	boolean consumir(long hash) {
+		int posicao = localizar(normalizar(hash), hashes);
+		if(hashes[posicao] == VAZIO || contagens[posicao] == 0) {
+			return false;
+		}
+		contagens[posicao]--;
+		return true;
+	}
+	
+	int tamanho() {
+		return tamanho;
+	}
+	
+	private void redimensionar() {
+		long[] hashesAnteriores = hashes;
+		int[] contagensAnteriores = contagens;
+		hashes = new long[hashesAnteriores.length * 2];
+		contagens = new int[hashesAnteriores.length * 2];
+		
+		for(int i = 0; i < hashesAnteriores.length; i++) {
+			if(hashesAnteriores[i] != VAZIO) {
+				int posicao = localizar(hashesAnteriores[i], hashes);
+				hashes[posicao] = hashesAnteriores[i];
+				contagens[posicao] = contagensAnteriores[i];
+			}
+		}
+	}
+	
+	private static int localizar(long hash, long[] tabela) {
+		int mascara = tabela.length - 1;
+		int posicao = (int) (hash ^ (hash >>> 32)) & mascara;
+		while(tabela[posicao] != VAZIO && tabela[posicao] != hash) {
+			posicao = (posicao + 1) & mascara;
+		}
+		return posicao;
+	}
+	
+	private static long normalizar(long hash) {
+		return hash == VAZIO ? 1L : hash;
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.exception.ServicoIndisponivelException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class ExecutorCriptografia {
+
+	private final PasswordEncoder encoder;
+	private final ThreadPoolExecutor executor;
+	
+	private final Timer duracaoVerificacao;
+	private final Timer duracaoCriptografia;
+	private final Timer espera;
+	private final Counter rejeicoes;
+	
+	public ExecutorCriptografia(PasswordEncoder encoder, MeterRegistry registry,
+			@Value("${seguranca.criptografia.threads:0}") int threads,
+			@Value("${seguranca.criptografia.tamanho-fila:100}") int tamanhoFila) {
+		this.encoder = encoder;
+		
+		// o BCrypt é puramente CPU: mais threads que núcleos só aumenta a latência de cada hash
+		int tamanhoPool = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.executor = new ThreadPoolExecutor(tamanhoPool, tamanhoPool, 0L, TimeUnit.MILLISECONDS, 
+				new ArrayBlockingQueue<>(tamanhoFila), criarThreads(), new ThreadPoolExecutor.AbortPolicy());
+		
+		this.duracaoVerificacao = criarTimer(registry, "seguranca.criptografia.duracao", "verificar");
+		this.duracaoCriptografia = criarTimer(registry, "seguranca.criptografia.duracao", "criptografar");
+		this.espera = Timer.builder("seguranca.criptografia.espera")
+				.description("Tempo na fila até uma thread de criptografia ficar livre")
+				.publishPercentiles(0.5, 0.99)
+				.register(registry);
+		this.rejeicoes = Counter.builder("seguranca.criptografia.rejeicoes")
+				.description("Pedidos recusados por fila cheia")
+				.register(registry);
+		Gauge.builder("seguranca.criptografia.fila", executor, e -> e.getQueue().size())
+				.description("Pedidos aguardando uma thread de criptografia")
+				.register(registry);
+		Gauge.builder("seguranca.criptografia.ativas", executor, ThreadPoolExecutor::getActiveCount)
+				.register(registry);
+	}
+	
+	public CompletableFuture<Boolean> verificar(String senha, String senhaCriptografada) {
+		return executar(duracaoVerificacao, () -> encoder.matches(senha, senhaCriptografada));
+	}
+	
+	public CompletableFuture<String> criptografar(String senha) {
+		return executar(duracaoCriptografia, () -> encoder.encode(senha));
+	}
+	
+	public int tamanhoFila() {
+		return executor.getQueue().size();
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdown();
+	}
+	
+	private <T> CompletableFuture<T> executar(Timer duracao, Supplier<T> operacao) {
+		long enfileirado = System.nanoTime();
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				espera.record(System.nanoTime() - enfileirado, TimeUnit.NANOSECONDS);
+				return duracao.record(operacao);
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			rejeicoes.increment();
+			throw new ServicoIndisponivelException("Servidor sobrecarregado, tente novamente em instantes.");
+		}
+	}
+	
+	private static Timer criarTimer(MeterRegistry registry, String nome, String operacao) {
+		return Timer.builder(nome)
+				.description("Duração do hash de senha")
+				.tag("operacao", operacao)
+				.publishPercentiles(0.5, 0.99)
+				.register(registry);
+	}
+	
+	private static ThreadFactory criarThreads() {
+		AtomicInteger contador = new AtomicInteger();
+		return tarefa -> {
+			Thread thread = new Thread(tarefa, "criptografia-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+}
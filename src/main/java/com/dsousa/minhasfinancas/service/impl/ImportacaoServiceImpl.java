@@ -0,0 +1,149 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.FormatoExtrato;
+import com.dsousa.minhasfinancas.service.ImportacaoService;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.LinhaExtrato;
+import com.dsousa.minhasfinancas.service.ResultadoImportacao;
+
+@Service
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+	private static final int TAMANHO_LOTE = 500;
+	private static final int TAMANHO_MAXIMO_DESCRICAO = 100;
+	
+	private LancamentoRepository repository;
+	private UsuarioRepository usuarioRepository;
+	private LancamentoService lancamentoService;
+	
+	public ImportacaoServiceImpl(LancamentoRepository repository, UsuarioRepository usuarioRepository, LancamentoService lancamentoService) {
+		super();
+		this.repository = repository;
+		this.usuarioRepository = usuarioRepository;
+		this.lancamentoService = lancamentoService;
+	}
+	
+	@Override
+	@Transactional
+	public ResultadoImportacao importar(Long idUsuario, FormatoExtrato formato, Reader extrato) throws IOException {
+		Usuario usuario = usuarioRepository
+				.findById(idUsuario)
+				.orElseThrow( () -> new RegraNegocioException("Usuário não encontrado para o ID informado."));
+		
+		ContadorHashes existentes = carregarHashes(idUsuario);
+		Set<Integer> anosConsultados = new HashSet<>();
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		Contagem contagem = new Contagem();
+		
+		contagem.invalidos = formato.ler(extrato, linha -> {
+			contagem.lidos++;
+			Lancamento lancamento = converter(linha, usuario);
+			if(lancamento == null) {
+				contagem.descartados++;
+				return;
+			}
+			
+			// lançamentos arquivados não estão mais na tabela: o arquivo de cada ano do extrato é lido uma vez
+			if(anosConsultados.add(lancamento.getAno())) {
+				lancamentoService.obterArquivados(idUsuario, lancamento.getAno()).forEach(arquivado -> existentes.adicionar(hash(arquivado)));
+			}
+			
+			// cada lançamento já gravado "absorve" uma ocorrência igual do extrato; o restante é novo
+			if(existentes.consumir(hash(lancamento.getAno(), lancamento.getMes(), lancamento.getValor(), lancamento.getTipo(), lancamento.getDescricao()))) {
+				contagem.duplicados++;
+				return;
+			}
+			
+			lote.add(lancamento);
+			contagem.importados++;
+			if(lote.size() == TAMANHO_LOTE) {
+				lancamentoService.salvarEmLote(lote);
+				lote.clear();
+			}
+		});
+		
+		if(!lote.isEmpty()) {
+			lancamentoService.salvarEmLote(lote);
+		}
+		
+		return new ResultadoImportacao(
+				contagem.lidos + contagem.invalidos, 
+				contagem.importados, 
+				contagem.duplicados, 
+				contagem.invalidos + contagem.descartados);
+	}
+	
+	private ContadorHashes carregarHashes(Long idUsuario) {
+		ContadorHashes hashes = new ContadorHashes();
+		try(Stream<LancamentoProjecao> lancamentos = repository.streamPorUsuario(idUsuario)) {
+			lancamentos.forEach(lancamento -> hashes.adicionar(hash(lancamento)));
+		}
+		return hashes;
+	}
+	
+	private static long hash(LancamentoProjecao lancamento) {
+		return hash(lancamento.getAno(), lancamento.getMes(), lancamento.getValor(), lancamento.getTipo(), lancamento.getDescricao());
+	}
+	
+	private Lancamento converter(LinhaExtrato linha, Usuario usuario) {
+		if(linha.getValor().signum() == 0 || linha.getDescricao().isEmpty()) {
+			return null;
+		}
+		
+		String descricao = linha.getDescricao();
+		if(descricao.length() > TAMANHO_MAXIMO_DESCRICAO) {
+			descricao = descricao.substring(0, TAMANHO_MAXIMO_DESCRICAO);
+		}
+		
+		return Lancamento.builder()
+				.descricao(descricao)
+				.ano(linha.getData().getYear())
+				.mes(linha.getData().getMonthValue())
+				.valor(linha.getValor().abs())
+				.tipo(linha.getValor().signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+				.usuario(usuario)
+				.build();
+	}
+	
+	// FNV-1a de 64 bits sobre os campos normalizados: valores iguais em escalas diferentes geram o mesmo hash
+	static long hash(Integer ano, Integer mes, BigDecimal valor, TipoLancamento tipo, String descricao) {
+		String chave = ano + "|" + mes + "|" + valor.stripTrailingZeros().toPlainString() + "|" + tipo + "|" 
+				+ descricao.trim().toLowerCase();
+		
+		long hash = 0xcbf29ce484222325L;
+		for(byte b : chave.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= (b & 0xff);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+	
+	private static class Contagem {
+		int lidos;
+		int importados;
+		int duplicados;
+		int descartados;
+		int invalidos;
+	}
+
+}
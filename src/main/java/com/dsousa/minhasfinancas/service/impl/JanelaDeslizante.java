@@ -0,0 +1,85 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// contador de janela deslizante sem locks: cada balde guarda, num único long, o período a que pertence
+// (40 bits altos) e a contagem (24 bits baixos), de modo que virar o balde e incrementar é um só CAS
+final class JanelaDeslizante {
+
+	private static final int BITS_CONTAGEM = 24;
+	private static final long MASCARA_CONTAGEM = (1L << BITS_CONTAGEM) - 1;
+	
+	private final AtomicLongArray baldes;
+	private final long duracaoBalde;
+	
+	JanelaDeslizante(int quantidadeBaldes, long duracaoBalde) {
+		this.baldes = new AtomicLongArray(quantidadeBaldes);
+		this.duracaoBalde = duracaoBalde;
+	}
+	
+	// instante deve ser não negativo e crescente (nanos desde a criação do limitador). A tentativa só é
+	// registrada enquanto a janela está abaixo do máximo: as recusadas não contam e não prolongam o bloqueio
+	boolean registrar(long instante, int maximo) {
+		long periodo = instante / duracaoBalde;
+		int quantidade = baldes.length();
+		int indice = (int) (periodo % quantidade);
+		
+		while(true) {
+			long atual = baldes.get(indice);
+			long contagem = (atual >>> BITS_CONTAGEM) == periodo ? atual & MASCARA_CONTAGEM : 0;
+			
+			long total = contagem;
+			for(int i = 0; i < quantidade; i++) {
+				if(i != indice) {
+					total += contagemValida(baldes.get(i), periodo, quantidade);
+				}
+			}
+			if(total >= maximo || contagem == MASCARA_CONTAGEM) {
+				return false;
+			}
+			
+			// a contagem do balde atual é confirmada pelo próprio CAS: chamadas concorrentes não passam juntas do máximo
+			if(baldes.compareAndSet(indice, atual, (periodo << BITS_CONTAGEM) | (contagem + 1))) {
+				return true;
+			}
+		}
+	}
+	
+	// nanos até a janela voltar a ficar abaixo do máximo: os baldes saem da janela do mais antigo
+	// para o mais novo, cada um quando completa quantidade períodos
+	long nanosAteLiberar(long instante, int maximo) {
+		long periodo = instante / duracaoBalde;
+		int quantidade = baldes.length();
+		long total = contar(instante);
+		
+		for(long p = Math.max(periodo - quantidade + 1, 0); p <= periodo && total >= maximo; p++) {
+			long balde = baldes.get((int) (p % quantidade));
+			if((balde >>> BITS_CONTAGEM) == p) {
+				total -= balde & MASCARA_CONTAGEM;
+			}
+			if(total < maximo) {
+				return (p + quantidade) * duracaoBalde - instante;
+			}
+		}
+		return total < maximo ? 0 : quantidade * duracaoBalde;
+	}
+	
+	int contar(long instante) {
+		long periodo = instante / duracaoBalde;
+		int quantidade = baldes.length();
+		long total = 0;
+		for(int i = 0; i < quantidade; i++) {
+			total += contagemValida(baldes.get(i), periodo, quantidade);
+		}
+		return (int) Math.min(total, Integer.MAX_VALUE);
+	}
+	
+	private static long contagemValida(long balde, long periodo, int quantidade) {
+		long periodoBalde = balde >>> BITS_CONTAGEM;
+		if(periodoBalde > periodo || periodo - periodoBalde >= quantidade) {
+			return 0;
+		}
+		return balde & MASCARA_CONTAGEM;
+	}
+
+}
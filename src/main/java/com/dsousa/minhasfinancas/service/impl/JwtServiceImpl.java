@@ -1,31 +1,52 @@
 package com.dsousa.minhasfinancas.service.impl;
 
+import java.security.Key;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.service.JwtService;
+import com.dsousa.minhasfinancas.service.TokenVerificado;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Service
 public class JwtServiceImpl implements JwtService{
 
+	private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+	
 	@Value("${jwt.expiracao}")
 	private String expiracao;
 	
 	@Value("${jwt.chave-assinatura}")
 	private String chaveAssinatura;
 	
+	private Key chave;
+	private JwtParser parser;
+	
+	@PostConstruct
+	public void inicializar() {
+		byte[] bytesChave = TextCodec.BASE64.decode(chaveAssinatura);
+		chave = new SecretKeySpec(bytesChave, SignatureAlgorithm.HS512.getJcaName());
+		parser = Jwts.parser().setSigningKey(chave);
+	}
+	
 	@Override
 	public String gerarToken(Usuario usuario) {
 		long exp = Long.valueOf(expiracao);
@@ -39,39 +60,44 @@ public class JwtServiceImpl implements JwtService{
 						.setSubject(usuario.getEmail())
 						.claim("userid", usuario.getId())
 						.claim("nome", usuario.getNome())
-						.claim("horaExpiracao", dataHoraExpiracao.toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm")))
-						.signWith(SignatureAlgorithm.HS512, chaveAssinatura)
+						.claim("horaExpiracao", dataHoraExpiracao.toLocalTime().format(FORMATO_HORA))
+						.signWith(SignatureAlgorithm.HS512, chave)
 						.compact();
 		
 		return token;
 	}
-
+	
 	@Override
 	public Claims obterClaims(String token) throws ExpiredJwtException {
-		return Jwts
-				.parser()
-				.setSigningKey(chaveAssinatura)
+		return parser
 				.parseClaimsJws(token)
 				.getBody();
 	}
-
+	
 	@Override
 	public boolean isTokenValido(String token) {
-		try {
-			Claims claims = obterClaims(token);
-			Date dataEx = claims.getExpiration();
-			LocalDateTime dataExpiracao = dataEx.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-			return !LocalDateTime.now().isAfter(dataExpiracao);
-		}catch(ExpiredJwtException e) {
-			return false;
-		}
-		
+		return verificarToken(token).isPresent();
 	}
-
+	
 	@Override
 	public String obterLoginUsuario(String token) {
 		Claims claims = obterClaims(token);
 		return claims.getSubject();
 	}
+	
+	@Override
+	public Optional<TokenVerificado> verificarToken(String token) {
+		try {
+			// o parser já rejeita tokens expirados, com assinatura inválida ou malformados
+			Claims claims = obterClaims(token);
+			return Optional.of(new TokenVerificado(
+					claims.getSubject(),
+					claims.get("userid", Long.class),
+					claims.get("nome", String.class),
+					claims.getExpiration()));
+		} catch (JwtException | IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
 
 }
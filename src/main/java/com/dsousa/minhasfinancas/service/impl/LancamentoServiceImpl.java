@@ -1,31 +1,95 @@
 package com.dsousa.minhasfinancas.service.impl;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.ArquivoLancamento;
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.entity.TotalArquivado;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.ArquivoLancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.CursorLancamento;
+import com.dsousa.minhasfinancas.model.repository.EstadoSaldoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.StatusAlteradoLancamento;
+import com.dsousa.minhasfinancas.model.repository.TotalLancamento;
+import com.dsousa.minhasfinancas.model.repository.VersaoUsuarioRepository;
 import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.Pagina;
+import com.dsousa.minhasfinancas.service.ResumoMensal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService{
 
+	private static final int TAMANHO_MAXIMO_PAGINA = 500;
+	private static final int MAXIMO_TERMOS_PESQUISA = 5;
+	private static final int MAXIMO_IDS_ATUALIZACAO = 1000;
+	private static final long MAXIMO_LANCAMENTOS_DESCOMPACTADOS = 200_000;
+
+	// ordem das listagens e da paginação por cursor
+	private static final Comparator<LancamentoProjecao> ORDEM_LISTAGEM = Comparator
+			.comparing(LancamentoProjecao::getAno)
+			.thenComparing(LancamentoProjecao::getMes)
+			.thenComparing(LancamentoProjecao::getId);
+
 	private LancamentoRepository repository;
+	private SaldoUsuarioRepository saldoRepository;
+	private VersaoUsuarioRepository versaoRepository;
+	private ArquivoLancamentoRepository arquivoRepository;
+	
+	// arquivos já descompactados por usuário, ano e versão do usuário. Todo arquivamento registra uma
+	// alteração, então a versão muda junto com o arquivo e uma entrada nunca fica desatualizada
+	private final Cache<List<Object>, List<Lancamento>> arquivosDescompactados = Caffeine.newBuilder()
+			.maximumWeight(MAXIMO_LANCAMENTOS_DESCOMPACTADOS)
+			.weigher((List<Object> chave, List<Lancamento> lancamentos) -> Math.max(lancamentos.size(), 1))
+			.expireAfterAccess(Duration.ofMinutes(10))
+			.build();
+	
+	// anos anteriores ao atual que continuam na tabela de lançamentos; os mais antigos são arquivados
+	@Value("${lancamento.arquivo.anos-mantidos:2}")
+	private int anosMantidos;
 	
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioRepository saldoRepository,
+			VersaoUsuarioRepository versaoRepository, ArquivoLancamentoRepository arquivoRepository) {
 		super();
 		this.repository = repository;
+		this.saldoRepository = saldoRepository;
+		this.versaoRepository = versaoRepository;
+		this.arquivoRepository = arquivoRepository;
 	}
 
 	@Override
@@ -33,7 +97,26 @@ public class LancamentoServiceImpl implements LancamentoService{
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		Lancamento lancamentoSalvo = repository.save(lancamento);
+		registrarAlteracao(idUsuario(lancamento));
+		return lancamentoSalvo;
+	}
+
+	@Override
+	@Transactional
+	public int salvarEmLote(List<Lancamento> lancamentos) {
+		for(Lancamento lancamento : lancamentos) {
+			validar(lancamento);
+			lancamento.setStatus(StatusLancamento.PENDENTE);
+		}
+		
+		// lançamentos novos são sempre pendentes, então o saldo armazenado não muda
+		repository.inserirEmLote(lancamentos);
+		lancamentos.stream()
+				.map(LancamentoServiceImpl::idUsuario)
+				.distinct()
+				.forEach(this::registrarAlteracao);
+		return lancamentos.size();
 	}
 
 	@Override
@@ -41,14 +124,76 @@ public class LancamentoServiceImpl implements LancamentoService{
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		Optional<EstadoSaldoLancamento> estadoAnterior = repository.obterEstadoParaSaldo(lancamento.getId());
+		
+		Lancamento lancamentoAtualizado = repository.save(lancamento);
+		
+		Long idUsuarioAnterior = estadoAnterior.map(EstadoSaldoLancamento::getIdUsuario).orElse(null);
+		BigDecimal contribuicaoAnterior = estadoAnterior
+				.map(estado -> contribuicaoNoSaldo(estado.getTipo(), estado.getStatus(), estado.getValor()))
+				.orElse(BigDecimal.ZERO);
+		ajustarSaldo(idUsuarioAnterior, contribuicaoAnterior, idUsuario(lancamentoAtualizado), contribuicaoNoSaldo(lancamentoAtualizado));
+		
+		registrarAlteracao(idUsuario(lancamento));
+		if(!Objects.equals(idUsuarioAnterior, idUsuario(lancamento))) {
+			registrarAlteracao(idUsuarioAnterior);
+		}
+		return lancamentoAtualizado;
+	}
+
+	@Override
+	@Transactional
+	public Optional<Lancamento> atualizarParcialmente(Long id, Long idUsuario, Lancamento alteracoes) {
+		Objects.requireNonNull(id);
+		Objects.requireNonNull(idUsuario);
+		if(alteracoes.getUsuario() != null && !idUsuario.equals(idUsuario(alteracoes))) {
+			throw new RegraNegocioException("Não é possível transferir o lançamento para outro usuário.");
+		}
+		
+		// o lançamento de outro usuário não é carregado, e o resultado é o mesmo de um id inexistente
+		return repository.obterDoUsuario(id, idUsuario).map(lancamento -> {
+			if(alteracoes.getVersao() != null && !alteracoes.getVersao().equals(lancamento.getVersao())) {
+				throw new ObjectOptimisticLockingFailureException(Lancamento.class, id);
+			}
+			
+			BigDecimal contribuicaoAnterior = contribuicaoNoSaldo(lancamento);
+			aplicar(alteracoes, lancamento);
+			validar(lancamento);
+			
+			// a entidade já está gerenciada: no flush o UPDATE grava apenas as colunas alteradas,
+			// condicionado à versão lida, sem o SELECT extra do merge
+			ajustarSaldo(idUsuario, contribuicaoNoSaldo(lancamento).subtract(contribuicaoAnterior));
+			registrarAlteracao(idUsuario);
+			return lancamento;
+		});
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		Optional<EstadoSaldoLancamento> estadoAnterior = repository.obterEstadoParaSaldo(lancamento.getId());
+		
 		repository.delete(lancamento);
+		
+		estadoAnterior.ifPresent(estado -> {
+			ajustarSaldo(estado.getIdUsuario(), contribuicaoNoSaldo(estado.getTipo(), estado.getStatus(), estado.getValor()).negate());
+			registrarAlteracao(estado.getIdUsuario());
+		});
+	}
+
+	@Override
+	@Transactional
+	public boolean deletar(Long id, Long idUsuario) {
+		Objects.requireNonNull(id);
+		Objects.requireNonNull(idUsuario);
+		Optional<EstadoSaldoLancamento> estadoAnterior = repository.deletarDoUsuario(id, idUsuario);
+		
+		estadoAnterior.ifPresent(estado -> {
+			ajustarSaldo(idUsuario, contribuicaoNoSaldo(estado.getTipo(), estado.getStatus(), estado.getValor()).negate());
+			registrarAlteracao(idUsuario);
+		});
+		return estadoAnterior.isPresent();
 	}
 
 	@Override
@@ -63,12 +208,134 @@ public class LancamentoServiceImpl implements LancamentoService{
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> listar(Lancamento lancamentofiltro) {
+		List<LancamentoProjecao> lancamentos = repository.listar(lancamentofiltro);
+		if(!consultarArquivo(lancamentofiltro)) {
+			return lancamentos;
+		}
+		return mesclar(lancamentos, buscarArquivados(lancamentofiltro, null, Integer.MAX_VALUE), Integer.MAX_VALUE);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Pagina<LancamentoProjecao> buscarPagina(Lancamento lancamentofiltro, String cursor, int tamanho) {
+		int limite = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA);
+		CursorLancamento posicao = cursor == null ? null : CursorLancamento.decodificar(cursor);
+		
+		// busca um registro a mais apenas para saber se existe próxima página, sem COUNT
+		List<LancamentoProjecao> lancamentos = repository.buscarPagina(lancamentofiltro, posicao, limite + 1);
+		if(consultarArquivo(lancamentofiltro)) {
+			lancamentos = mesclar(lancamentos, buscarArquivados(lancamentofiltro, posicao, limite + 1), limite + 1);
+		}
+		
+		String proximaPagina = null;
+		if(lancamentos.size() > limite) {
+			lancamentos = lancamentos.subList(0, limite);
+			LancamentoProjecao ultimo = lancamentos.get(limite - 1);
+			proximaPagina = new CursorLancamento(ultimo.getAno(), ultimo.getMes(), ultimo.getId()).codificar();
+		}
+		
+		return new Pagina<>(lancamentos, proximaPagina);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Lancamento> pesquisar(Long idUsuario, String consulta, int limite) {
+		List<String> termos = consulta == null ? Collections.emptyList() : Arrays
+				.stream(consulta.trim().toLowerCase().split("\\s+"))
+				.filter(termo -> !termo.isEmpty())
+				.distinct()
+				.collect(Collectors.toList());
+		
+		if(termos.isEmpty()) {
+			throw new RegraNegocioException("Informe ao menos um termo de pesquisa.");
+		}
+		
+		if(termos.size() > MAXIMO_TERMOS_PESQUISA) {
+			throw new RegraNegocioException("Informe no máximo " + MAXIMO_TERMOS_PESQUISA + " termos de pesquisa.");
+		}
+		
+		int tamanho = Math.min(Math.max(limite, 1), TAMANHO_MAXIMO_PAGINA);
+		return repository.pesquisarPorDescricao(idUsuario, termos, tamanho);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor) {
+		// projeções não são gerenciadas, então o contexto de persistência continua vazio durante toda a exportação
+		long versao = obterVersao(idUsuario);
+		for(Integer ano : arquivoRepository.obterAnos(idUsuario)) {
+			lerArquivo(idUsuario, ano, versao).stream().map(LancamentoServiceImpl::projetar).forEach(consumidor);
+		}
+		
+		try(Stream<LancamentoProjecao> lancamentos = repository.streamPorUsuario(idUsuario)) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+
+	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
 		lancamento.setStatus(status);
 		atualizar(lancamento);
 		
 	}
 
+	@Override
+	@Transactional
+	public Optional<LancamentoProjecao> atualizarStatus(Long id, Long idUsuario, StatusLancamento status) {
+		Objects.requireNonNull(id);
+		Objects.requireNonNull(idUsuario);
+		Optional<StatusAlteradoLancamento> alteracao = repository.atualizarStatusDoUsuario(id, idUsuario, status);
+		
+		if(!alteracao.isPresent()) {
+			// nada alterado: o lançamento não é do usuário ou já estava neste status, e só então é lido, como projeção
+			return repository.obterProjecaoPorId(id).filter(lancamento -> idUsuario.equals(lancamento.getIdUsuario()));
+		}
+		
+		LancamentoProjecao lancamento = alteracao.get().getLancamento();
+		ajustarSaldo(idUsuario, contribuicaoNoSaldo(lancamento.getTipo(), status, lancamento.getValor())
+				.subtract(contribuicaoNoSaldo(lancamento.getTipo(), alteracao.get().getStatusAnterior(), lancamento.getValor())));
+		registrarAlteracao(idUsuario);
+		return Optional.of(lancamento);
+	}
+
+	@Override
+	@Transactional
+	public int atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status) {
+		Objects.requireNonNull(idUsuario);
+		if(ids == null || ids.isEmpty()) {
+			return 0;
+		}
+		
+		if(ids.size() > MAXIMO_IDS_ATUALIZACAO) {
+			throw new RegraNegocioException("Informe no máximo " + MAXIMO_IDS_ATUALIZACAO + " lançamentos por atualização.");
+		}
+		
+		List<EstadoSaldoLancamento> alterados = repository.atualizarStatus(idUsuario, ids, status);
+		ajustarSaldo(alterados, status);
+		if(!alterados.isEmpty()) {
+			registrarAlteracao(idUsuario);
+		}
+		return alterados.size();
+	}
+
+	@Override
+	@Transactional
+	public int atualizarStatusPorFiltro(Lancamento lancamentofiltro, StatusLancamento status) {
+		if(lancamentofiltro.getUsuario() == null || lancamentofiltro.getUsuario().getId() == null) {
+			throw new RegraNegocioException("Informe um Usuário.");
+		}
+		
+		List<EstadoSaldoLancamento> alterados = repository.atualizarStatus(lancamentofiltro, status);
+		ajustarSaldo(alterados, status);
+		if(!alterados.isEmpty()) {
+			registrarAlteracao(lancamentofiltro.getUsuario().getId());
+		}
+		return alterados.size();
+	}
+
 	@Override
 	public void validar(Lancamento lancamento) {
 		
@@ -102,24 +369,389 @@ public class LancamentoServiceImpl implements LancamentoService{
 		return repository.findById(id);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<LancamentoProjecao> obterProjecaoPorId(Long id) {
+		return repository.obterProjecaoPorId(id);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<LancamentoProjecao> obterArquivadoPorId(Long id, Long idUsuario) {
+		// o id não informa o ano: cada ano arquivado do usuário é procurado, já ordenado por id
+		long versao = obterVersao(idUsuario);
+		Lancamento chave = Lancamento.builder().id(id).build();
+		for(Integer ano : arquivoRepository.obterAnos(idUsuario)) {
+			List<Lancamento> lancamentos = lerArquivo(idUsuario, ano, versao);
+			int indice = Collections.binarySearch(lancamentos, chave, Comparator.comparing(Lancamento::getId));
+			if(indice >= 0) {
+				return Optional.of(projetar(lancamentos.get(indice)));
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> obterArquivados(Long idUsuario, Integer ano) {
+		if(ano == null || ano >= anoLimiteArquivo()) {
+			return Collections.emptyList();
+		}
+		return lerArquivo(idUsuario, ano, obterVersao(idUsuario)).stream()
+				.map(LancamentoServiceImpl::projetar)
+				.collect(Collectors.toList());
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long id) {
+		return saldoRepository
+				.findById(id)
+				.map(SaldoUsuario::getSaldo)
+				.orElseGet(() -> calcularSaldo(id));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long obterVersao(Long idUsuario) {
+		return versaoRepository.obterVersao(idUsuario).orElse(0L);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMensal> obterResumoMensal(Long idUsuario, Integer ano) {
+		List<TotalLancamento> totais = ano == null 
+				? repository.obterTotaisPorMes(idUsuario) 
+				: repository.obterTotaisPorMesNoAno(idUsuario, ano);
+		
+		if(ano == null || ano < anoLimiteArquivo()) {
+			List<TotalLancamento> arquivados = ano == null
+					? arquivoRepository.obterTotaisPorMes(idUsuario)
+					: arquivoRepository.obterTotaisPorMesNoAno(idUsuario, ano);
+			totais = somarTotais(totais, arquivados);
+		}
+		return ResumoMensal.agrupar(totais);
+	}
+
+	@Override
+	@Transactional
+	public boolean reconciliarSaldo(Long idUsuario) {
+		BigDecimal saldoCalculado = calcularSaldo(idUsuario);
+		Optional<SaldoUsuario> saldoArmazenado = saldoRepository.findById(idUsuario);
+		
+		if(saldoArmazenado.isPresent() && saldoArmazenado.get().getSaldo().compareTo(saldoCalculado) == 0) {
+			return true;
+		}
+		
+		saldoRepository.save(new SaldoUsuario(idUsuario, saldoCalculado));
+		registrarAlteracao(idUsuario);
+		return false;
+	}
+
+	@Override
+	@Transactional
+	public int reconciliarSaldos() {
+		Set<Long> idsUsuarios = new HashSet<>(repository.obterIdsUsuariosComLancamentos());
+		saldoRepository.findAll().forEach(saldo -> idsUsuarios.add(saldo.getIdUsuario()));
+		
+		int divergentes = 0;
+		for(Long idUsuario : idsUsuarios) {
+			if(!reconciliarSaldo(idUsuario)) {
+				divergentes++;
+			}
+		}
+		return divergentes;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ChaveArquivoLancamento> obterAnosParaArquivar() {
+		return repository.obterAnosAnterioresA(anoLimiteArquivo());
+	}
+
+	@Override
+	@Transactional
+	public int arquivar(Long idUsuario, Integer ano) {
+		int anoLimite = anoLimiteArquivo();
+		if(ano >= anoLimite) {
+			throw new RegraNegocioException("Apenas lançamentos anteriores a " + anoLimite + " podem ser arquivados.");
+		}
+		
+		// as linhas ficam bloqueadas até o commit: nenhuma alteração concorrente se perde entre a leitura e a exclusão
+		List<Lancamento> lancamentos = repository.obterParaArquivamento(idUsuario, ano);
+		if(lancamentos.isEmpty()) {
+			return 0;
+		}
+		
+		ArquivoLancamento arquivo = arquivoRepository.findById(new ChaveArquivoLancamento(idUsuario, ano))
+				.orElseGet(() -> ArquivoLancamento.builder().idUsuario(idUsuario).ano(ano).build());
+		List<Lancamento> arquivados = new ArrayList<>(lerArquivo(arquivo));
+		arquivados.addAll(lancamentos);
+		arquivados.sort(Comparator.comparing(Lancamento::getId));
+		
+		arquivo.setDados(CodificadorArquivo.compactar(arquivados));
+		arquivo.setQuantidade(arquivados.size());
+		arquivo.setDataArquivamento(LocalDate.now());
+		arquivo.getTotais().clear();
+		arquivo.getTotais().addAll(totalizar(arquivados));
+		arquivoRepository.save(arquivo);
+		
+		List<Long> ids = lancamentos.stream().map(Lancamento::getId).collect(Collectors.toList());
+		for(int inicio = 0; inicio < ids.size(); inicio += MAXIMO_IDS_ATUALIZACAO) {
+			repository.deletarArquivados(ano, ids.subList(inicio, Math.min(inicio + MAXIMO_IDS_ATUALIZACAO, ids.size())));
+		}
+		
+		// o saldo não muda, pois os totais arquivados entram no cálculo; listagens e ETags sim
+		registrarAlteracao(idUsuario);
+		return lancamentos.size();
+	}
+
+	private BigDecimal calcularSaldo(Long id) {
 		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
 		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		BigDecimal receitasArquivadas = arquivoRepository.obterSaldoPorTipoEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		BigDecimal despesasArquivadas = arquivoRepository.obterSaldoPorTipoEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+	
+		return zeroSeNulo(receitas).add(zeroSeNulo(receitasArquivadas))
+				.subtract(zeroSeNulo(despesas))
+				.subtract(zeroSeNulo(despesasArquivadas));
+	}
 	
-		if(receitas == null) {
-			receitas = BigDecimal.ZERO;
+	private static BigDecimal zeroSeNulo(BigDecimal valor) {
+		return valor == null ? BigDecimal.ZERO : valor;
+	}
+	
+	private void ajustarSaldo(Long idUsuario, BigDecimal valor) {
+		if(idUsuario == null || valor.signum() == 0) {
+			return;
 		}
 		
-		if(despesas == null) {
-			despesas = BigDecimal.ZERO;
+		int atualizados = saldoRepository.adicionar(idUsuario, valor);
+		if(atualizados == 0) {
+			// primeiro movimento desde que o saldo passou a ser armazenado: parte do agregado,
+			// que já considera a alteração feita nesta transação. Por isso cada usuário deve receber
+			// uma única variação por transação, somando antes as contribuições antiga e nova
+			saldoRepository.criarOuAdicionar(idUsuario, calcularSaldo(idUsuario), valor);
+		}
+	}
+	
+	private void ajustarSaldo(Long idUsuarioAnterior, BigDecimal contribuicaoAnterior, Long idUsuarioAtual, BigDecimal contribuicao) {
+		if(Objects.equals(idUsuarioAnterior, idUsuarioAtual)) {
+			ajustarSaldo(idUsuarioAtual, contribuicao.subtract(contribuicaoAnterior));
+		} else {
+			ajustarSaldo(idUsuarioAnterior, contribuicaoAnterior.negate());
+			ajustarSaldo(idUsuarioAtual, contribuicao);
+		}
+	}
+	
+	// toda escrita nos lançamentos de um usuário invalida as ETags de saldo e listagem dele
+	private void registrarAlteracao(Long idUsuario) {
+		if(idUsuario == null) {
+			return;
 		}
 		
-		return receitas.subtract(despesas);
+		int atualizados = versaoRepository.incrementar(idUsuario);
+		if(atualizados == 0) {
+			versaoRepository.criarOuIncrementar(idUsuario);
+		}
+	}
 	
+	private void ajustarSaldo(List<EstadoSaldoLancamento> estadosAnteriores, StatusLancamento novoStatus) {
+		// estado anterior de cada lançamento alterado: troca a contribuição antiga pela do novo status,
+		// somando uma única variação por usuário
+		Map<Long, BigDecimal> variacoes = new HashMap<>();
+		for(EstadoSaldoLancamento estado : estadosAnteriores) {
+			BigDecimal variacao = contribuicaoNoSaldo(estado.getTipo(), novoStatus, estado.getValor())
+					.subtract(contribuicaoNoSaldo(estado.getTipo(), estado.getStatus(), estado.getValor()));
+			variacoes.merge(estado.getIdUsuario(), variacao, BigDecimal::add);
+		}
+		variacoes.forEach(this::ajustarSaldo);
 	}
-
 	
+	// apenas os campos informados são copiados para a entidade
+	private static void aplicar(Lancamento alteracoes, Lancamento lancamento) {
+		if(alteracoes.getDescricao() != null) {
+			lancamento.setDescricao(alteracoes.getDescricao());
+		}
+		
+		if(alteracoes.getMes() != null) {
+			lancamento.setMes(alteracoes.getMes());
+		}
+		
+		if(alteracoes.getAno() != null) {
+			lancamento.setAno(alteracoes.getAno());
+		}
+		
+		if(alteracoes.getValor() != null) {
+			lancamento.setValor(alteracoes.getValor());
+		}
+		
+		if(alteracoes.getTipo() != null) {
+			lancamento.setTipo(alteracoes.getTipo());
+		}
+		
+		if(alteracoes.getStatus() != null) {
+			lancamento.setStatus(alteracoes.getStatus());
+		}
+		
+		if(alteracoes.getUsuario() != null) {
+			lancamento.setUsuario(alteracoes.getUsuario());
+		}
+	}
+	
+	private int anoLimiteArquivo() {
+		return Year.now().getValue() - anosMantidos;
+	}
+	
+	// anos recentes nunca estão arquivados, então só filtros sem ano ou com ano antigo leem o arquivo
+	private boolean consultarArquivo(Lancamento filtro) {
+		return idUsuario(filtro) != null && (filtro.getAno() == null || filtro.getAno() < anoLimiteArquivo());
+	}
+	
+	private List<Integer> anosArquivados(Lancamento filtro) {
+		return filtro.getAno() != null 
+				? Collections.singletonList(filtro.getAno()) 
+				: arquivoRepository.obterAnos(idUsuario(filtro));
+	}
+	
+	// as listas em cache são compartilhadas entre requisições e não podem ser alteradas. Dentro de uma
+	// transação de escrita a versão lida pode ser desfeita no rollback, então ali o arquivo não vai para o cache
+	private List<Lancamento> lerArquivo(Long idUsuario, Integer ano, long versao) {
+		if(TransactionSynchronizationManager.isActualTransactionActive() 
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return lerArquivo(idUsuario, ano);
+		}
+		return arquivosDescompactados.get(Arrays.asList(idUsuario, ano, versao), 
+				chave -> Collections.unmodifiableList(lerArquivo(idUsuario, ano)));
+	}
+	
+	private List<Lancamento> lerArquivo(Long idUsuario, Integer ano) {
+		return arquivoRepository.findById(new ChaveArquivoLancamento(idUsuario, ano))
+				.map(this::lerArquivo)
+				.orElse(Collections.emptyList());
+	}
+	
+	private List<Lancamento> lerArquivo(ArquivoLancamento arquivo) {
+		if(arquivo.getDados() == null) {
+			return Collections.emptyList();
+		}
+		return CodificadorArquivo.descompactar(arquivo.getDados(), arquivo.getIdUsuario(), arquivo.getAno());
+	}
+	
+	// os anos são lidos em ordem, então ao completar o limite os anos seguintes não são descompactados
+	private List<LancamentoProjecao> buscarArquivados(Lancamento filtro, CursorLancamento posicao, int limite) {
+		List<LancamentoProjecao> arquivados = new ArrayList<>();
+		long versao = obterVersao(idUsuario(filtro));
+		for(Integer ano : anosArquivados(filtro)) {
+			if(arquivados.size() >= limite) {
+				break;
+			}
+			
+			if(posicao != null && ano < posicao.getAno()) {
+				continue;
+			}
+			
+			lerArquivo(idUsuario(filtro), ano, versao).stream()
+					.filter(lancamento -> corresponde(filtro, lancamento))
+					.map(LancamentoServiceImpl::projetar)
+					.filter(lancamento -> posicao == null || posteriorAoCursor(lancamento, posicao))
+					.forEach(arquivados::add);
+		}
+		
+		arquivados.sort(ORDEM_LISTAGEM);
+		return arquivados;
+	}
+	
+	private static List<LancamentoProjecao> mesclar(List<LancamentoProjecao> lancamentos, 
+			List<LancamentoProjecao> arquivados, int limite) {
+		if(arquivados.isEmpty()) {
+			return lancamentos;
+		}
+		
+		List<LancamentoProjecao> resultado = new ArrayList<>(lancamentos);
+		resultado.addAll(arquivados);
+		resultado.sort(ORDEM_LISTAGEM);
+		return resultado.size() > limite ? resultado.subList(0, limite) : resultado;
+	}
+	
+	// mesmos critérios aplicados pelo repositório na tabela de lançamentos
+	private static boolean corresponde(Lancamento filtro, Lancamento lancamento) {
+		if(filtro.getDescricao() != null 
+				&& !lancamento.getDescricao().toLowerCase().contains(filtro.getDescricao().toLowerCase())) {
+			return false;
+		}
+		
+		if(filtro.getValor() != null && filtro.getValor().compareTo(lancamento.getValor()) != 0) {
+			return false;
+		}
+		
+		return (filtro.getMes() == null || filtro.getMes().equals(lancamento.getMes()))
+				&& (filtro.getAno() == null || filtro.getAno().equals(lancamento.getAno()))
+				&& (filtro.getTipo() == null || filtro.getTipo() == lancamento.getTipo())
+				&& (filtro.getStatus() == null || filtro.getStatus() == lancamento.getStatus());
+	}
+	
+	private static boolean posteriorAoCursor(LancamentoProjecao lancamento, CursorLancamento posicao) {
+		int comparacao = lancamento.getAno().compareTo(posicao.getAno());
+		if(comparacao == 0) {
+			comparacao = lancamento.getMes().compareTo(posicao.getMes());
+		}
+		if(comparacao == 0) {
+			comparacao = lancamento.getId().compareTo(posicao.getId());
+		}
+		return comparacao > 0;
+	}
+	
+	private static LancamentoProjecao projetar(Lancamento lancamento) {
+		return new LancamentoProjecao(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(), 
+				lancamento.getAno(), lancamento.getValor(), idUsuario(lancamento), lancamento.getTipo(), 
+				lancamento.getStatus(), lancamento.getVersao());
+	}
+	
+	private static List<TotalArquivado> totalizar(List<Lancamento> lancamentos) {
+		Map<List<Object>, TotalArquivado> totais = new LinkedHashMap<>();
+		for(Lancamento lancamento : lancamentos) {
+			TotalArquivado total = totais.computeIfAbsent(
+					Arrays.asList(lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus()),
+					chave -> new TotalArquivado(lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), BigDecimal.ZERO, 0L));
+			total.setValor(total.getValor().add(lancamento.getValor()));
+			total.setQuantidade(total.getQuantidade() + 1);
+		}
+		return new ArrayList<>(totais.values());
+	}
+	
+	// um mês pode ter parte dos lançamentos arquivada e parte ainda na tabela
+	private static List<TotalLancamento> somarTotais(List<TotalLancamento> totais, List<TotalLancamento> arquivados) {
+		if(arquivados.isEmpty()) {
+			return totais;
+		}
+		
+		Map<List<Object>, TotalLancamento> somados = new LinkedHashMap<>();
+		Stream.concat(totais.stream(), arquivados.stream()).forEach(total -> somados.merge(
+				Arrays.asList(total.getAno(), total.getMes(), total.getTipo(), total.getStatus()), total,
+				(anterior, atual) -> new TotalLancamento(anterior.getAno(), anterior.getMes(), anterior.getTipo(), 
+						anterior.getStatus(), anterior.getValor().add(atual.getValor()), 
+						anterior.getQuantidade() + atual.getQuantidade())));
+		
+		return somados.values().stream()
+				.sorted(Comparator.comparing(TotalLancamento::getAno).thenComparing(TotalLancamento::getMes))
+				.collect(Collectors.toList());
+	}
+	
+	private static Long idUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+	
+	private BigDecimal contribuicaoNoSaldo(Lancamento lancamento) {
+		return contribuicaoNoSaldo(lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+	}
+	
+	private BigDecimal contribuicaoNoSaldo(TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+		if(status != StatusLancamento.EFETIVADO || valor == null) {
+			return BigDecimal.ZERO;
+		}
+		
+		return tipo == TipoLancamento.RECEITA ? valor : valor.negate();
+	}
 	
 }
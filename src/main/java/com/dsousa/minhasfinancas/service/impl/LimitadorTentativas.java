@@ -0,0 +1,113 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.exception.TentativasExcedidasException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class LimitadorTentativas {
+
+	private static final int BALDES_POR_JANELA = 6;
+	
+	private final Cache<String, JanelaDeslizante> porEmailEEndereco;
+	private final Cache<String, JanelaDeslizante> porConta;
+	private final Cache<String, JanelaDeslizante> porEndereco;
+	private final Function<String, JanelaDeslizante> novaJanela;
+	
+	private final int maximoPorEmail;
+	private final int maximoPorConta;
+	private final int maximoPorEndereco;
+	private final long inicio = System.nanoTime();
+	
+	public LimitadorTentativas(
+			@Value("${seguranca.tentativas.maximo-por-email:10}") int maximoPorEmail,
+			@Value("${seguranca.tentativas.maximo-por-conta:50}") int maximoPorConta,
+			@Value("${seguranca.tentativas.maximo-por-endereco:100}") int maximoPorEndereco,
+			@Value("${seguranca.tentativas.janela-segundos:60}") long janelaSegundos,
+			@Value("${seguranca.tentativas.maximo-chaves:100000}") long maximoChaves) {
+		this.maximoPorEmail = maximoPorEmail;
+		this.maximoPorConta = maximoPorConta;
+		this.maximoPorEndereco = maximoPorEndereco;
+		
+		long duracaoBalde = Math.max(TimeUnit.SECONDS.toNanos(janelaSegundos) / BALDES_POR_JANELA, 1);
+		this.novaJanela = chave -> new JanelaDeslizante(BALDES_POR_JANELA, duracaoBalde);
+		
+		// chaves sem tentativas por uma janela inteira já não contam para nada e podem sair
+		this.porEmailEEndereco = Caffeine.newBuilder()
+				.maximumSize(maximoChaves)
+				.expireAfterAccess(Duration.ofSeconds(janelaSegundos))
+				.build();
+		this.porConta = Caffeine.newBuilder()
+				.maximumSize(maximoChaves)
+				.expireAfterAccess(Duration.ofSeconds(janelaSegundos))
+				.build();
+		this.porEndereco = Caffeine.newBuilder()
+				.maximumSize(maximoChaves)
+				.expireAfterAccess(Duration.ofSeconds(janelaSegundos))
+				.build();
+	}
+	
+	// chamado antes de qualquer consulta ao banco ou hash. O email conta junto com o endereço: quem erra a
+	// senha de outra pessoa de outro endereço não bloqueia o login dela. A conta ainda tem um limite próprio,
+	// mais alto, contra tentativas distribuídas por muitos endereços. Tentativas recusadas não contam
+	public void registrar(String email, String enderecoCliente) {
+		long instante = System.nanoTime() - inicio;
+		
+		// par e conta são conferidos antes, para que uma tentativa recusada por eles não seja contada no endereço
+		JanelaDeslizante janelaEmail = email == null ? null : porEmailEEndereco.get(chave(email, enderecoCliente), novaJanela);
+		if(janelaEmail != null && janelaEmail.contar(instante) >= maximoPorEmail) {
+			throw excedidas("Muitas tentativas de login para este email. Aguarde e tente novamente.", janelaEmail, instante, maximoPorEmail);
+		}
+		
+		JanelaDeslizante janelaConta = email == null ? null : porConta.get(normalizar(email), novaJanela);
+		if(janelaConta != null && janelaConta.contar(instante) >= maximoPorConta) {
+			throw excedidas("Muitas tentativas de login para este email. Aguarde e tente novamente.", janelaConta, instante, maximoPorConta);
+		}
+		
+		if(enderecoCliente != null) {
+			JanelaDeslizante janelaEndereco = porEndereco.get(enderecoCliente, novaJanela);
+			if(!janelaEndereco.registrar(instante, maximoPorEndereco)) {
+				throw excedidas("Muitas tentativas de login a partir deste endereço. Aguarde e tente novamente.", janelaEndereco, instante, maximoPorEndereco);
+			}
+		}
+		
+		if(janelaConta != null && !janelaConta.registrar(instante, maximoPorConta)) {
+			throw excedidas("Muitas tentativas de login para este email. Aguarde e tente novamente.", janelaConta, instante, maximoPorConta);
+		}
+		
+		if(janelaEmail != null && !janelaEmail.registrar(instante, maximoPorEmail)) {
+			throw excedidas("Muitas tentativas de login para este email. Aguarde e tente novamente.", janelaEmail, instante, maximoPorEmail);
+		}
+	}
+	
+	public long chavesAtivas() {
+		porEmailEEndereco.cleanUp();
+		porConta.cleanUp();
+		porEndereco.cleanUp();
+		return porEmailEEndereco.estimatedSize() + porConta.estimatedSize() + porEndereco.estimatedSize();
+	}
+	
+	// o Retry-After é o tempo real até a tentativa mais antiga sair da janela, arredondado para cima
+	private static TentativasExcedidasException excedidas(String mensagem, JanelaDeslizante janela, long instante, int maximo) {
+		long nanos = janela.nanosAteLiberar(instante, maximo);
+		long segundos = Math.max(TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1), 1);
+		return new TentativasExcedidasException(mensagem, segundos);
+	}
+	
+	private static String chave(String email, String enderecoCliente) {
+		return normalizar(email) + "|" + (enderecoCliente == null ? "" : enderecoCliente);
+	}
+	
+	private static String normalizar(String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.time.Year;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+
+@Component
+public class ParticionamentoLancamento {
+
+	private final LancamentoRepository repository;
+	private final int anosFuturos;
+	
+	public ParticionamentoLancamento(LancamentoRepository repository,
+			@Value("${lancamento.particoes.anos-futuros:1}") int anosFuturos) {
+		this.repository = repository;
+		this.anosFuturos = anosFuturos;
+	}
+	
+	// a partição de cada ano existe antes do primeiro lançamento dele; rodar de novo não cria nada
+	@Scheduled(cron = "${lancamento.particoes.cron:0 0 3 * * *}")
+	@Transactional
+	public int criarParticoesFuturas() {
+		int anoAtual = Year.now().getValue();
+		return repository.criarParticoes(anoAtual, anoAtual + anosFuturos);
+	}
+
+}
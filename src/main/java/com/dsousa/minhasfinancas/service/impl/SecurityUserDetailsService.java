@@ -1,6 +1,5 @@
 package com.dsousa.minhasfinancas.service.impl;
 
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -8,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.UsuarioAutenticado;
 
 @Service
 public class SecurityUserDetailsService implements UserDetailsService {
@@ -24,11 +24,7 @@ public class SecurityUserDetailsService implements UserDetailsService {
 				.findByEmail(email)
 				.orElseThrow(() -> new UsernameNotFoundException("Email não cadastrado."));
 		
-		return User.builder()
-				.username(usuarioEncontrado.getEmail())
-				.password(usuarioEncontrado.getSenha())
-				.roles("USER")
-				.build();
+		return UsuarioAutenticado.de(usuarioEncontrado);
 	}
 	
 }
@@ -0,0 +1,107 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class UsuarioAutenticadoCache implements PostUpdateEventListener, PostDeleteEventListener, MeterBinder {
+
+	private static final String PROPRIEDADE_EMAIL = "email";
+
+	private final Cache<String, UserDetails> cache;
+	private final EntityManagerFactory entityManagerFactory;
+
+	public UsuarioAutenticadoCache(
+			EntityManagerFactory entityManagerFactory,
+			@Value("${seguranca.cache-usuario.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${seguranca.cache-usuario.expiracao-segundos:300}") long expiracaoSegundos) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(Duration.ofSeconds(expiracaoSegundos))
+				.recordStats()
+				.build();
+	}
+
+	@PostConstruct
+	public void registrarInvalidacao() {
+		EventListenerRegistry registry = entityManagerFactory
+				.unwrap(SessionFactoryImpl.class)
+				.getServiceRegistry()
+				.getService(EventListenerRegistry.class);
+
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, "usuario-autenticado");
+	}
+
+	public UserDetails obter(String email, Function<String, UserDetails> carregador) {
+		return cache.get(email, carregador);
+	}
+
+	public void invalidar(String email) {
+		if(email != null) {
+			cache.invalidate(email);
+		}
+	}
+
+	public CacheStats estatisticas() {
+		return cache.stats();
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if(event.getEntity() instanceof Usuario) {
+			invalidar(((Usuario) event.getEntity()).getEmail());
+
+			if(event.getOldState() != null) {
+				int indice = Arrays.asList(event.getPersister().getPropertyNames()).indexOf(PROPRIEDADE_EMAIL);
+				if(indice >= 0) {
+					invalidar((String) event.getOldState()[indice]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if(event.getEntity() instanceof Usuario) {
+			invalidar(((Usuario) event.getEntity()).getEmail());
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return Usuario.class.equals(persister.getMappedClass());
+	}
+
+}
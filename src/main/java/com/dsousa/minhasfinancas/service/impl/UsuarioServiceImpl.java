@@ -1,9 +1,13 @@
 package com.dsousa.minhasfinancas.service.impl;
 
+import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,44 +21,83 @@ import com.dsousa.minhasfinancas.service.UsuarioService;
 public class UsuarioServiceImpl implements UsuarioService{
 
 	private UsuarioRepository repository;
-	private PasswordEncoder encoder;
+	private ExecutorCriptografia criptografia;
+	private LimitadorTentativas limitador;
 	
 	@Autowired
-	public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder encoder) {
+	public UsuarioServiceImpl(UsuarioRepository repository, ExecutorCriptografia criptografia, LimitadorTentativas limitador) {
 		super();
 		this.repository = repository;
-		this.encoder = encoder;
+		this.criptografia = criptografia;
+		this.limitador = limitador;
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
+		return aguardar(autenticarAssincrono(email, senha, null));
+	}
+
+	@Override
+	public Usuario salvarUsuario(Usuario usuario) {
+		return salvarUsuarioCriptografado(aguardar(criptografarSenha(usuario)));
+	}
+	
+	@Override
+	public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha, String enderecoCliente) {
+		limitador.registrar(email, enderecoCliente);
+		
 		Optional<Usuario> usuario = repository.findByEmail(email);
 		
 		if(!usuario.isPresent()) {
 			throw new ErroAutenticacao("Usuário não encontrado para o email informado");
 		}
 		
-		boolean senhasBatem = encoder.matches(senha, usuario.get().getSenha());
-		
-		if(!senhasBatem) {
-			throw new ErroAutenticacao("Senha inválida");
-		}
-		
-		return usuario.get();
+		return criptografia.verificar(senha, usuario.get().getSenha()).thenApply(senhasBatem -> {
+			if(!senhasBatem) {
+				throw new ErroAutenticacao("Senha inválida");
+			}
+			return usuario.get();
+		});
 	}
-
+	
+	// só o hash roda no ExecutorCriptografia; a gravação fica em salvarUsuarioCriptografado, fora desse pool
+	@Override
+	public CompletableFuture<Usuario> criptografarSenha(Usuario usuario) {
+		validarEmail(usuario.getEmail());
+		return criptografia.criptografar(usuario.getSenha()).thenApply(senhaCripto -> {
+			usuario.setSenha(senhaCripto);
+			return usuario;
+		});
+	}
+	
 	@Override
 	@Transactional
-	public Usuario salvarUsuario(Usuario usuario) {
-		criptografarSenha(usuario);
-		return repository.save(usuario);
+	public Usuario salvarUsuarioCriptografado(Usuario usuario) {
+		try {
+			return repository.save(usuario);
+		} catch (DataIntegrityViolationException e) {
+			// outro cadastro com o mesmo email passou por validarEmail ao mesmo tempo; o índice único uk_usuario_email (V3) recusou este
+			if(violacaoDeUnicidade(e)) {
+				throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
+			}
+			throw e;
+		}
 	}
-
-	private void criptografarSenha(Usuario usuario) {
-		validarEmail(usuario.getEmail());
-		String senha = usuario.getSenha();
-		String senhaCripto = encoder.encode(senha);
-		usuario.setSenha(senhaCripto);
+	
+	private static boolean violacaoDeUnicidade(DataIntegrityViolationException e) {
+		Throwable causa = NestedExceptionUtils.getMostSpecificCause(e);
+		return causa instanceof SQLException && "23505".equals(((SQLException) causa).getSQLState());
+	}
+	
+	private static <T> T aguardar(CompletableFuture<T> futuro) {
+		try {
+			return futuro.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
 	}
 
 	@Override
@@ -70,6 +113,17 @@ public class UsuarioServiceImpl implements UsuarioService{
 		return repository.findById(id);
 	}
 	
+	@Override
+	public Usuario obterReferencia(Long id) {
+		// apenas o id é usado como chave estrangeira, o usuário não é lido da base
+		return repository.getReferenceById(id);
+	}
+	
+	@Override
+	public boolean existe(Long id) {
+		return repository.existsById(id);
+	}
+	
 	
 
 }
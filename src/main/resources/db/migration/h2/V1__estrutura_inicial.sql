@@ -0,0 +1,23 @@
+create schema if not exists financas;
+
+create table if not exists financas.usuario
+(
+	id bigint generated by default as identity primary key,
+	nome varchar(150),
+	email varchar(100),
+	senha varchar(255),
+	data_cadastro date default current_date
+);
+
+create table if not exists financas.lancamento
+(
+	id bigint generated by default as identity primary key,
+	descricao varchar(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo varchar(20) not null,
+	status varchar(20) not null,
+	id_usuario bigint references financas.usuario (id),
+	data_cadastro date default current_date
+);
@@ -0,0 +1,7 @@
+-- filtros e paginação por usuário, ordenados por ano e mês
+create index if not exists idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
+
+-- o H2 não tem INCLUDE: o valor entra como última coluna para o índice continuar cobrindo a soma
+create index if not exists idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status, valor);
+
+create unique index if not exists uk_usuario_email on financas.usuario (email);
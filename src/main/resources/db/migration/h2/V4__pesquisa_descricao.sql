@@ -0,0 +1,3 @@
+-- o H2 não tem trigramas nem índices de expressão: a descrição entra no índice junto do usuário, e o
+-- like da pesquisa percorre apenas as entradas do usuário no índice. O nome é o mesmo do PostgreSQL
+create index if not exists idx_lancamento_descricao_trgm on financas.lancamento (id_usuario, descricao);
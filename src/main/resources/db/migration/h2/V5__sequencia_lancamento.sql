@@ -0,0 +1,6 @@
+-- a aplicação reserva blocos de 50 ids por chamada (otimizador pooled-lo), permitindo inserts em lote
+create sequence if not exists financas.lancamento_id_seq start with 1 increment by 50;
+
+alter table financas.lancamento alter column id drop identity;
+
+alter table financas.lancamento alter column id set default next value for financas.lancamento_id_seq;
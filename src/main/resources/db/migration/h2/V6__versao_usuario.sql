@@ -0,0 +1,6 @@
+-- incrementada a cada escrita em lançamentos do usuário; base das ETags de saldo e listagem
+create table if not exists financas.versao_usuario
+(
+	id_usuario bigint not null primary key references financas.usuario (id) on delete cascade,
+	versao bigint not null default 0
+);
@@ -0,0 +1,24 @@
+-- anos fechados saem de financas.lancamento: cada usuário e ano vira uma linha com os lançamentos
+-- compactados coluna a coluna (gzip), mais os totais por mês, tipo e status usados no saldo e no resumo
+create table if not exists financas.lancamento_arquivo
+(
+	id_usuario bigint not null references financas.usuario (id) on delete cascade,
+	ano integer not null,
+	quantidade integer not null,
+	dados blob not null,
+	data_arquivamento date default now(),
+	primary key (id_usuario, ano)
+);
+
+create table if not exists financas.lancamento_arquivo_total
+(
+	id_usuario bigint not null,
+	ano integer not null,
+	mes integer not null,
+	tipo varchar(20) not null,
+	status varchar(20) not null,
+	valor numeric(16,2) not null,
+	quantidade bigint not null,
+	primary key (id_usuario, ano, mes, tipo, status),
+	foreign key (id_usuario, ano) references financas.lancamento_arquivo (id_usuario, ano) on delete cascade
+);
@@ -0,0 +1,31 @@
+-- criar_particoes_lancamento roda no agendamento de todas as instâncias (ParticionamentoLancamento): duas
+-- instâncias criando a mesma partição ao mesmo tempo disputavam o create table e o attach partition.
+-- o advisory lock transacional serializa as chamadas; a segunda só verifica a partição depois que a
+-- primeira terminou, encontra-a pronta e não faz nada
+create or replace function financas.criar_particoes_lancamento(ano_inicial integer, ano_final integer) returns integer
+language plpgsql as $$
+declare
+	ano_particao integer;
+	nome_particao text;
+	criadas integer := 0;
+begin
+	perform pg_advisory_xact_lock(hashtext('financas.criar_particoes_lancamento'));
+	for ano_particao in ano_inicial .. ano_final loop
+		nome_particao := 'lancamento_' || ano_particao;
+		if to_regclass('financas.' || nome_particao) is null then
+			execute format('create table financas.%I (like financas.lancamento including defaults including constraints)', nome_particao);
+			execute format('with movidos as (delete from financas.lancamento_padrao where ano = %s returning *) '
+					|| 'insert into financas.%I select * from movidos', ano_particao, nome_particao);
+			execute format('alter table financas.lancamento attach partition financas.%I for values from (%s) to (%s)',
+					nome_particao, ano_particao, ano_particao + 1);
+			criadas := criadas + 1;
+		end if;
+	end loop;
+	return criadas;
+end;
+$$;
+
+-- desde V8 a chave primária é (id, ano), exigência do particionamento: a base não garante mais que o id seja
+-- único entre anos diferentes. a unicidade depende de todo insert usar financas.lancamento_id_seq, como fazem
+-- a aplicação e as migrações; um id informado manualmente pode repetir o de outro ano
+comment on column financas.lancamento.id is 'único apenas pela sequência lancamento_id_seq: a chave primária é (id, ano)';
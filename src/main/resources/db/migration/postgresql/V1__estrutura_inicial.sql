@@ -0,0 +1,23 @@
+create schema if not exists financas;
+
+create table if not exists financas.usuario
+(
+	id bigserial not null primary key,
+	nome character varying(150),
+	email character varying(100),
+	senha character varying(255),
+	data_cadastro date default now()
+);
+
+create table if not exists financas.lancamento
+(
+	id bigserial not null primary key,
+	descricao character varying(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo character varying(20) check ( tipo in ('RECEITA', 'DESPESA') ) not null,
+	status character varying(20) check ( status in ('PENDENTE', 'CANCELADO', 'EFETIVADO') ) not null,
+	id_usuario bigint references financas.usuario (id),
+	data_cadastro date default now()
+);
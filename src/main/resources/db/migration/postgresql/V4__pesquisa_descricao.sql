@@ -0,0 +1,4 @@
+-- o flyway roda com search_path = financas; a extensão fica em public para ser visível à aplicação
+create extension if not exists pg_trgm with schema public;
+
+create index if not exists idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) public.gin_trgm_ops);
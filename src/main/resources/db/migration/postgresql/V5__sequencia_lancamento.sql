@@ -0,0 +1,2 @@
+-- a aplicação reserva blocos de 50 ids por chamada (otimizador pooled-lo), permitindo inserts em lote
+alter sequence financas.lancamento_id_seq increment by 50;
@@ -0,0 +1,2 @@
+-- controle de concorrência otimista: toda atualização confere e incrementa a versão lida
+alter table financas.lancamento add column versao bigint default 0 not null;
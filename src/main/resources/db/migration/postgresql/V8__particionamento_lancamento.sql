@@ -0,0 +1,70 @@
+-- lançamentos particionados por ano: consultas com ano no filtro leem apenas as partições correspondentes.
+-- a chave primária passa a incluir o ano, como o particionamento exige; o id continua único pela sequência
+alter table financas.lancamento rename to lancamento_nao_particionado;
+alter table financas.lancamento_nao_particionado rename constraint lancamento_pkey to lancamento_nao_particionado_pkey;
+alter table financas.lancamento_nao_particionado alter column id drop default;
+alter sequence financas.lancamento_id_seq owned by none;
+
+create table financas.lancamento
+(
+	id bigint not null default nextval('financas.lancamento_id_seq'),
+	descricao character varying(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo character varying(20) check ( tipo in ('RECEITA', 'DESPESA') ) not null,
+	status character varying(20) check ( status in ('PENDENTE', 'CANCELADO', 'EFETIVADO') ) not null,
+	id_usuario bigint references financas.usuario (id),
+	data_cadastro date default now(),
+	versao bigint default 0 not null,
+	primary key (id, ano)
+) partition by range (ano);
+
+alter sequence financas.lancamento_id_seq owned by financas.lancamento.id;
+
+-- anos sem partição própria caem aqui até que a partição do ano seja criada
+create table financas.lancamento_padrao partition of financas.lancamento default;
+
+-- cria uma partição por ano no intervalo, movendo para ela as linhas do ano que estavam na partição padrão.
+-- é idempotente e devolve quantas partições foram criadas
+create or replace function financas.criar_particoes_lancamento(ano_inicial integer, ano_final integer) returns integer
+language plpgsql as $$
+declare
+	ano_particao integer;
+	nome_particao text;
+	criadas integer := 0;
+begin
+	for ano_particao in ano_inicial .. ano_final loop
+		nome_particao := 'lancamento_' || ano_particao;
+		if to_regclass('financas.' || nome_particao) is null then
+			execute format('create table financas.%I (like financas.lancamento including defaults including constraints)', nome_particao);
+			execute format('with movidos as (delete from financas.lancamento_padrao where ano = %s returning *) '
+					|| 'insert into financas.%I select * from movidos', ano_particao, nome_particao);
+			execute format('alter table financas.lancamento attach partition financas.%I for values from (%s) to (%s)',
+					nome_particao, ano_particao, ano_particao + 1);
+			criadas := criadas + 1;
+		end if;
+	end loop;
+	return criadas;
+end;
+$$;
+
+-- partições para o histórico existente (no máximo 20 anos; anos mais antigos ficam na partição padrão) e o próximo ano
+select financas.criar_particoes_lancamento(
+	greatest(
+		coalesce((select min(ano) from financas.lancamento_nao_particionado), extract(year from current_date)::integer),
+		extract(year from current_date)::integer - 20),
+	extract(year from current_date)::integer + 1);
+
+insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao)
+select id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao
+from financas.lancamento_nao_particionado;
+
+drop table financas.lancamento_nao_particionado;
+
+-- os índices de V3 e V4, agora particionados: cada partição recebe o seu, inclusive as criadas depois
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
+create index idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status) include (valor);
+create index idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) public.gin_trgm_ops);
+
+analyze financas.lancamento;
@@ -0,0 +1,89 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.time.Year;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.JwtService;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+// a listagem e a paginação do recurso, e não apenas o serviço, devolvem os lançamentos já arquivados
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "seguranca.jwt.stateless=true")
+@AutoConfigureMockMvc
+@Transactional
+public class LancamentoResourceArquivoTest {
+
+	static final String API = "/api/lancamentos";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	JwtService jwtService;
+	
+	int ano;
+	Lancamento arquivado;
+	String token;
+	
+	@BeforeEach
+	public void setUp() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("arquivo@email.com").senha("senha").build());
+		ano = Year.now().getValue() - 5;
+		
+		arquivado = LancamentoRepositoryTest.criarLancamento();
+		arquivado.setUsuario(usuario);
+		arquivado.setAno(ano);
+		arquivado = lancamentoRepository.saveAndFlush(arquivado);
+		Assertions.assertEquals(1, lancamentoService.arquivar(usuario.getId(), ano));
+		token = jwtService.gerarToken(usuario);
+	}
+	
+	@Test
+	public void deveListarOsLancamentosArquivados() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(API).param("ano", String.valueOf(ano))
+				.header("Authorization", "Bearer " + token))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+		.andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(arquivado.getId()));
+	}
+	
+	@Test
+	public void devePaginarOsLancamentosArquivados() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(API).param("tamanho", "10")
+				.header("Authorization", "Bearer " + token))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(1))
+		.andExpect(MockMvcResultMatchers.jsonPath("itens[0].id").value(arquivado.getId()));
+	}
+
+}
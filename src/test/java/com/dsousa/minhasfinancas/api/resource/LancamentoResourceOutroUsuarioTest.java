@@ -0,0 +1,110 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.JwtService;
+
+// aplicação completa sobre o H2: a requisição roda na transação do teste, desfeita ao final, e o
+// usuário autenticado vem do token (stateless), sem passar pelo cache de usuários entre os testes
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "seguranca.jwt.stateless=true")
+@AutoConfigureMockMvc
+@Transactional
+public class LancamentoResourceOutroUsuarioTest {
+
+	static final String API = "/api/lancamentos";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	JwtService jwtService;
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	Lancamento lancamento;
+	String tokenOutroUsuario;
+	
+	@BeforeEach
+	public void setUp() {
+		Usuario dono = usuarioRepository.save(Usuario.builder().nome("dono").email("dono@email.com").senha("senha").build());
+		Usuario outro = usuarioRepository.save(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+		
+		lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(dono);
+		lancamento = lancamentoRepository.saveAndFlush(lancamento);
+		tokenOutroUsuario = jwtService.gerarToken(outro);
+	}
+	
+	@Test
+	public void naoDeveDeletarOLancamentoDeOutroUsuario() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.delete(API.concat("/" + lancamento.getId()))
+				.header("Authorization", "Bearer " + tokenOutroUsuario))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+		
+		verificarLancamentoIntocado();
+	}
+	
+	@Test
+	public void naoDeveAtualizarOStatusDoLancamentoDeOutroUsuario() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+				.header("Authorization", "Bearer " + tokenOutroUsuario)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"status\": \"EFETIVADO\"}"))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+		
+		verificarLancamentoIntocado();
+	}
+	
+	@Test
+	public void naoDeveAtualizarParcialmenteOLancamentoDeOutroUsuario() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.patch(API.concat("/" + lancamento.getId()))
+				.header("Authorization", "Bearer " + tokenOutroUsuario)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"status\": \"EFETIVADO\"}"))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+		
+		verificarLancamentoIntocado();
+	}
+	
+	private void verificarLancamentoIntocado() {
+		entityManager.clear();
+		Lancamento atual = entityManager.find(Lancamento.class, lancamento.getId());
+		Assertions.assertNotNull(atual);
+		Assertions.assertEquals(StatusLancamento.PENDENTE, atual.getStatus());
+		Assertions.assertEquals(lancamento.getVersao(), atual.getVersao());
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// a requisição inteira, inclusive a serialização da resposta, não pode ler o usuário: o lançamento
+// o referencia só pelo id. O cache de segundo nível é esvaziado para que um acerto não esconda a leitura
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"seguranca.jwt.stateless=true", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+@Transactional
+public class LancamentoResourceReferenciaUsuarioTest {
+
+	static final String API = "/api/lancamentos";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	JwtService jwtService;
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	Usuario usuario;
+	Lancamento lancamento;
+	String token;
+	Statistics estatisticas;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+		lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento = lancamentoRepository.saveAndFlush(lancamento);
+		token = jwtService.gerarToken(usuario);
+		
+		entityManager.clear();
+		entityManagerFactory.getCache().evictAll();
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.clear();
+	}
+	
+	@Test
+	public void deveSalvarUmLancamentoSemConsultarOUsuario() throws Exception {
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.post(API), criarLancamentoDTO()))
+		.andExpect(MockMvcResultMatchers.status().isCreated())
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()));
+		
+		entityManager.flush();
+		verificarUsuarioNaoConsultado();
+		Assertions.assertEquals(1, estatisticas.getEntityStatistics(Lancamento.class.getName()).getInsertCount());
+	}
+	
+	@Test
+	public void deveAtualizarUmLancamentoSemConsultarOUsuario() throws Exception {
+		//scenario
+		LancamentoDTO dto = criarLancamentoDTO();
+		dto.setDescricao("descricao alterada");
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId())), dto))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("descricao alterada"))
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()));
+		
+		entityManager.flush();
+		verificarUsuarioNaoConsultado();
+		Assertions.assertEquals(1, estatisticas.getEntityStatistics(Lancamento.class.getName()).getUpdateCount());
+	}
+	
+	private void verificarUsuarioNaoConsultado() {
+		EntityStatistics estatisticasUsuario = estatisticas.getEntityStatistics(Usuario.class.getName());
+		Assertions.assertEquals(0, estatisticasUsuario.getLoadCount());
+		Assertions.assertEquals(0, estatisticasUsuario.getFetchCount());
+		Assertions.assertEquals(0, estatisticas.getSecondLevelCacheHitCount());
+	}
+	
+	private LancamentoDTO criarLancamentoDTO() {
+		LancamentoDTO dto = LancamentoResourceTest.criarLancamentoDTO();
+		dto.setUsuario(usuario.getId());
+		return dto;
+	}
+	
+	private MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request, Object corpo) throws Exception {
+		return request
+				.header("Authorization", "Bearer " + token)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(corpo));
+	}
+
+}
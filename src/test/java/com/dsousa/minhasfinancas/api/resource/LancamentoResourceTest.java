@@ -0,0 +1,372 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
+import com.dsousa.minhasfinancas.service.ImportacaoService;
+import com.dsousa.minhasfinancas.service.JwtService;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.TokenVerificado;
+import com.dsousa.minhasfinancas.service.UsuarioService;
+import com.dsousa.minhasfinancas.service.impl.SecurityUserDetailsService;
+import com.dsousa.minhasfinancas.service.impl.UsuarioAutenticadoCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// em modo stateless o usuário autenticado vem do próprio token, sem consulta à base
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest( controllers = LancamentoResource.class, properties = "seguranca.jwt.stateless=true")
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+	static final String API = "/api/lancamentos";
+	static final Long ID_USUARIO = 1l;
+	static final String TOKEN = "token";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LancamentoService service;
+	
+	@MockBean
+	UsuarioService usuarioService;
+	
+	@MockBean
+	ImportacaoService importacaoService;
+	
+	@MockBean
+	JwtService jwtService;
+	
+	@MockBean
+	SecurityUserDetailsService userDetailsService;
+	
+	@MockBean
+	UsuarioAutenticadoCache usuarioAutenticadoCache;
+	
+	@BeforeEach
+	public void setUp() {
+		TokenVerificado token = new TokenVerificado("usuario@email.com", ID_USUARIO, "usuario", new Date(System.currentTimeMillis() + 60000));
+		Mockito.when(jwtService.verificarToken(TOKEN)).thenReturn(Optional.of(token));
+		Mockito.when(usuarioService.obterReferencia(Mockito.anyLong()))
+			.thenAnswer(invocacao -> Usuario.builder().id(invocacao.getArgument(0)).build());
+	}
+	
+	@Test
+	public void deveRetornarOLancamentoSalvoComOUsuario() throws Exception {
+		//scenario
+		Mockito.when(service.salvar(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> {
+			Lancamento lancamento = invocacao.getArgument(0);
+			lancamento.setId(10l);
+			lancamento.setStatus(StatusLancamento.PENDENTE);
+			lancamento.setVersao(0l);
+			return lancamento;
+		});
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.post(API), criarLancamentoDTO()))
+		.andExpect(MockMvcResultMatchers.status().isCreated())
+		.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		.andExpect(MockMvcResultMatchers.jsonPath("status").value("PENDENTE"))
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(ID_USUARIO));
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoSalvarLancamentoDeUsuarioInexistente() throws Exception {
+		//scenario
+		Mockito.when(service.salvar(Mockito.any(Lancamento.class)))
+			.thenThrow(new DataIntegrityViolationException("fk", new SQLException("fk", "23506")));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.post(API), criarLancamentoDTO()))
+		.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		.andExpect(MockMvcResultMatchers.content().string("Usuário não encontrado para o ID informado."));
+	}
+	
+	@Test
+	public void naoDeveTratarOutrasViolacoesComoUsuarioInexistente() {
+		//scenario
+		Mockito.when(service.salvar(Mockito.any(Lancamento.class)))
+			.thenThrow(new DataIntegrityViolationException("check", new SQLException("check", "23513")));
+		
+		//action and verification
+		Exception erro = Assertions.assertThrows(Exception.class,
+				() -> mvc.perform(autenticado(MockMvcRequestBuilders.post(API), criarLancamentoDTO())));
+		Assertions.assertTrue(erro.getCause() instanceof DataIntegrityViolationException);
+	}
+	
+	@Test
+	public void deveRetornarOLancamentoAtualizadoComOUsuario() throws Exception {
+		//scenario
+		Lancamento existente = Lancamento.builder().id(10l).versao(3l).build();
+		Mockito.when(service.obterPorId(10l)).thenReturn(Optional.of(existente));
+		Mockito.when(service.atualizar(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/10")), criarLancamentoDTO()))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		.andExpect(MockMvcResultMatchers.jsonPath("versao").value(3))
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(ID_USUARIO));
+	}
+	
+	@Test
+	public void deveRetornarConflitoAoAtualizarParcialmenteComVersaoDesatualizada() throws Exception {
+		//scenario
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("descricao alterada").versao(2l).build();
+		Mockito.when(service.atualizarParcialmente(Mockito.eq(10l), Mockito.eq(ID_USUARIO), Mockito.argThat(alteracoes -> Long.valueOf(2l).equals(alteracoes.getVersao()))))
+			.thenThrow(new ObjectOptimisticLockingFailureException(Lancamento.class, 10l));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.patch(API.concat("/10")), dto))
+		.andExpect(MockMvcResultMatchers.status().isConflict());
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoAtualizarParcialmenteParaOutroUsuario() throws Exception {
+		//scenario
+		LancamentoDTO dto = LancamentoDTO.builder().usuario(99l).versao(3l).build();
+		Mockito.when(service.atualizarParcialmente(Mockito.eq(10l), Mockito.eq(ID_USUARIO), Mockito.any(Lancamento.class)))
+			.thenThrow(new RegraNegocioException("Não é possível transferir o lançamento para outro usuário."));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.patch(API.concat("/10")), dto))
+		.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		.andExpect(MockMvcResultMatchers.content().string("Não é possível transferir o lançamento para outro usuário."));
+	}
+	
+	@Test
+	public void deveRetornarOLancamentoAtualizadoParcialmente() throws Exception {
+		//scenario
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("descricao alterada").versao(3l).build();
+		Lancamento atualizado = Lancamento.builder().id(10l).descricao("descricao alterada").versao(4l)
+				.usuario(Usuario.builder().id(ID_USUARIO).build()).build();
+		Mockito.when(service.atualizarParcialmente(Mockito.eq(10l), Mockito.eq(ID_USUARIO), Mockito.any(Lancamento.class))).thenReturn(Optional.of(atualizado));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.patch(API.concat("/10")), dto))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("descricao alterada"))
+		.andExpect(MockMvcResultMatchers.jsonPath("versao").value(4))
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario.id").value(ID_USUARIO));
+	}
+	
+	@Test
+	public void deveRetornarOLancamentoComOStatusAtualizado() throws Exception {
+		//scenario
+		LancamentoProjecao atualizado = new LancamentoProjecao(10l, "descricao", 1, 2020, BigDecimal.TEN, ID_USUARIO,
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1l);
+		Mockito.when(service.atualizarStatus(10l, ID_USUARIO, StatusLancamento.EFETIVADO)).thenReturn(Optional.of(atualizado));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/10/atualiza-status")), new AtualizaStatusDTO("EFETIVADO")))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+		.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1))
+		.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(ID_USUARIO));
+	}
+	
+	@Test
+	public void deveRetornarNotFoundParaLancamentoInexistenteNoPutNoPatchENoStatus() throws Exception {
+		//scenario
+		Mockito.when(service.obterPorId(10l)).thenReturn(Optional.empty());
+		Mockito.when(service.atualizarParcialmente(Mockito.eq(10l), Mockito.eq(ID_USUARIO), Mockito.any(Lancamento.class))).thenReturn(Optional.empty());
+		Mockito.when(service.atualizarStatus(10l, ID_USUARIO, StatusLancamento.EFETIVADO)).thenReturn(Optional.empty());
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/10")), criarLancamentoDTO()))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+		mvc.perform(autenticado(MockMvcRequestBuilders.patch(API.concat("/10")), LancamentoDTO.builder().descricao("descricao").versao(1l).build()))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/10/atualiza-status")), new AtualizaStatusDTO("EFETIVADO")))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+	
+	@Test
+	public void deveObterDoArquivoOLancamentoQueNaoEstaMaisNaTabela() throws Exception {
+		//scenario
+		LancamentoProjecao arquivado = new LancamentoProjecao(10l, "lancamento arquivado", 3, 2015, BigDecimal.TEN, 
+				ID_USUARIO, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 2l);
+		Mockito.when(service.obterProjecaoPorId(10l)).thenReturn(Optional.empty());
+		Mockito.when(service.obterArquivadoPorId(10l, ID_USUARIO)).thenReturn(Optional.of(arquivado));
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/10"))))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("lancamento arquivado"))
+		.andExpect(MockMvcResultMatchers.jsonPath("ano").value(2015));
+		
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/11"))))
+		.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+	
+	@Test
+	public void deveBuscarPeloUsuarioDoTokenSemSessaoESemConsultarOUsuario() throws Exception {
+		//scenario
+		Mockito.when(service.listar(Mockito.any(Lancamento.class))).thenReturn(Collections.emptyList());
+		
+		//action
+		MvcResult resultado = mvc.perform(autenticado(MockMvcRequestBuilders.get(API)))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().doesNotExist("Set-Cookie"))
+				.andReturn();
+		
+		//verification
+		Assertions.assertNull(resultado.getRequest().getSession(false));
+		
+		ArgumentCaptor<Lancamento> filtro = ArgumentCaptor.forClass(Lancamento.class);
+		Mockito.verify(service).listar(filtro.capture());
+		Assertions.assertEquals(ID_USUARIO, filtro.getValue().getUsuario().getId());
+		
+		Mockito.verify(userDetailsService, Mockito.never()).loadUserByUsername(Mockito.anyString());
+		Mockito.verify(usuarioAutenticadoCache, Mockito.never()).obter(Mockito.anyString(), Mockito.any());
+		Mockito.verify(usuarioService, Mockito.never()).existe(Mockito.anyLong());
+		Mockito.verify(usuarioService, Mockito.never()).obterPorId(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveRetornarNotModifiedSemConsultarOsLancamentosQuandoAETagForAAtual() throws Exception {
+		//scenario
+		Mockito.when(service.obterVersao(ID_USUARIO)).thenReturn(5l);
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API)).header("If-None-Match", "\"1-5\""))
+		.andExpect(MockMvcResultMatchers.status().isNotModified())
+		.andExpect(MockMvcResultMatchers.content().string(""));
+		
+		Mockito.verify(service, Mockito.never()).listar(Mockito.any(Lancamento.class));
+		Mockito.verify(service, Mockito.never()).buscarPagina(Mockito.any(Lancamento.class), Mockito.any(), Mockito.anyInt());
+		Mockito.verify(usuarioService, Mockito.never()).existe(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveRetornarOsLancamentosComANovaETagQuandoAVersaoMudar() throws Exception {
+		//scenario
+		Mockito.when(service.obterVersao(ID_USUARIO)).thenReturn(6l);
+		Mockito.when(service.listar(Mockito.any(Lancamento.class))).thenReturn(Collections.emptyList());
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API)).header("If-None-Match", "\"1-5\""))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-6\""));
+		
+		Mockito.verify(service).listar(Mockito.any(Lancamento.class));
+	}
+	
+	@Test
+	public void naoDeveExportarOsLancamentosDeOutroUsuario() throws Exception {
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/exportar"))).param("usuario", "99"))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(service, Mockito.never()).exportar(Mockito.anyLong(), Mockito.any());
+	}
+	
+	@Test
+	public void naoDevePesquisarOsLancamentosDeOutroUsuario() throws Exception {
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/pesquisa"))).param("termos", "luz").param("usuario", "99"))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(service, Mockito.never()).pesquisar(Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt());
+	}
+	
+	@Test
+	public void deveObterOResumoDoUsuarioAutenticadoENegarODeOutroUsuario() throws Exception {
+		//scenario
+		Mockito.when(service.obterResumoMensal(ID_USUARIO, null)).thenReturn(Collections.emptyList());
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/resumo"))))
+		.andExpect(MockMvcResultMatchers.status().isOk());
+		mvc.perform(autenticado(MockMvcRequestBuilders.get(API.concat("/resumo"))).param("usuario", "99"))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(service).obterResumoMensal(ID_USUARIO, null);
+		Mockito.verify(service, Mockito.never()).obterResumoMensal(Mockito.eq(99l), Mockito.any());
+	}
+	
+	@Test
+	public void naoDeveImportarParaOutroUsuario() throws Exception {
+		//scenario
+		MockMultipartFile arquivo = new MockMultipartFile("arquivo", "extrato.csv", "text/csv", "data;descricao;valor".getBytes());
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.multipart(API.concat("/importar")).file(arquivo)).param("usuario", "99"))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(importacaoService, Mockito.never()).importar(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void naoDeveAtualizarEmLoteOStatusDosLancamentosDeOutroUsuario() throws Exception {
+		//scenario
+		AtualizaStatusLoteDTO dto = AtualizaStatusLoteDTO.builder().status("EFETIVADO").usuario(99l).ano(2019).build();
+		
+		//action and verification
+		mvc.perform(autenticado(MockMvcRequestBuilders.put(API.concat("/atualiza-status")), dto))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(service, Mockito.never()).atualizarStatusPorFiltro(Mockito.any(Lancamento.class), Mockito.any());
+		Mockito.verify(service, Mockito.never()).atualizarStatusEmLote(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	static LancamentoDTO criarLancamentoDTO() {
+		return LancamentoDTO.builder()
+				.descricao("lancamento qualquer")
+				.ano(2019)
+				.mes(1)
+				.valor(BigDecimal.valueOf(10))
+				.tipo(TipoLancamento.RECEITA.name())
+				.usuario(ID_USUARIO)
+				.build();
+	}
+	
+	static MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request) {
+		return request.header("Authorization", "Bearer " + TOKEN);
+	}
+	
+	static MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request, Object corpo) throws Exception {
+		return autenticado(request)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(corpo));
+	}
+
+}
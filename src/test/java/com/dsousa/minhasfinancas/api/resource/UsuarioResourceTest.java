@@ -1,5 +1,9 @@
 package com.dsousa.minhasfinancas.api.resource;
 
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -11,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -18,14 +23,20 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import com.dsousa.minhasfinancas.api.dto.UsuarioDTO;
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.exception.ServicoIndisponivelException;
+import com.dsousa.minhasfinancas.exception.TentativasExcedidasException;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.JwtService;
 import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.TokenVerificado;
 import com.dsousa.minhasfinancas.service.UsuarioService;
+import com.dsousa.minhasfinancas.service.impl.SecurityUserDetailsService;
+import com.dsousa.minhasfinancas.service.impl.UsuarioAutenticadoCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@WebMvcTest( controllers = UsuarioResource.class)
+@WebMvcTest( controllers = UsuarioResource.class, properties = "seguranca.jwt.stateless=true")
 @AutoConfigureMockMvc
 public class UsuarioResourceTest {
 
@@ -40,6 +51,15 @@ public class UsuarioResourceTest {
 	@MockBean
 	LancamentoService lancamentoService;
 	
+	@MockBean
+	JwtService jwtService;
+	
+	@MockBean
+	SecurityUserDetailsService userDetailsService;
+	
+	@MockBean
+	UsuarioAutenticadoCache usuarioAutenticadoCache;
+	
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception {
 		//scenario
@@ -48,7 +68,7 @@ public class UsuarioResourceTest {
 		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 		
-		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(service.autenticarAssincrono(Mockito.eq(email), Mockito.eq(senha), Mockito.any())).thenReturn(CompletableFuture.completedFuture(usuario));
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -59,7 +79,11 @@ public class UsuarioResourceTest {
 												.contentType(MediaType.APPLICATION_JSON)
 												.content(json);
 		
-		mvc.perform(request)
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
 		.andExpect(MockMvcResultMatchers.status().isOk())
 		.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 		.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
@@ -74,7 +98,7 @@ public class UsuarioResourceTest {
 		String senha = "123";
 		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
 
-		Mockito.when(service.autenticar(email, senha)).thenThrow(ErroAutenticacao.class);
+		Mockito.when(service.autenticarAssincrono(Mockito.eq(email), Mockito.eq(senha), Mockito.any())).thenThrow(ErroAutenticacao.class);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -85,7 +109,11 @@ public class UsuarioResourceTest {
 												.contentType(MediaType.APPLICATION_JSON)
 												.content(json);
 		
-		mvc.perform(request)
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
 		.andExpect(MockMvcResultMatchers.status().isBadRequest());
 	
 	}
@@ -98,7 +126,8 @@ public class UsuarioResourceTest {
 		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 		
-		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenReturn(usuario);
+		Mockito.when(service.criptografarSenha(Mockito.any(Usuario.class))).thenReturn(CompletableFuture.completedFuture(usuario));
+		Mockito.when(service.salvarUsuarioCriptografado(usuario)).thenReturn(usuario);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -109,7 +138,11 @@ public class UsuarioResourceTest {
 												.contentType(MediaType.APPLICATION_JSON)
 												.content(json);
 		
-		mvc.perform(request)
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
 		.andExpect(MockMvcResultMatchers.status().isCreated())
 		.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 		.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
@@ -124,7 +157,7 @@ public class UsuarioResourceTest {
 		String senha = "123";
 		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
 
-		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenThrow(RegraNegocioException.class);
+		Mockito.when(service.criptografarSenha(Mockito.any(Usuario.class))).thenThrow(RegraNegocioException.class);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -135,9 +168,121 @@ public class UsuarioResourceTest {
 												.contentType(MediaType.APPLICATION_JSON)
 												.content(json);
 		
-		mvc.perform(request)
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
 		.andExpect(MockMvcResultMatchers.status().isBadRequest());
 	
 	}
 	
+	@Test
+	public void deveRetornarBadRequestQuandoOEmailForCadastradoDuranteOHashDaSenha() throws Exception {
+		//scenario
+		String email = "usuario@email.com";
+		String senha = "123";
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+		Usuario usuario = Usuario.builder().email(email).senha(senha).build();
+		
+		Mockito.when(service.criptografarSenha(Mockito.any(Usuario.class))).thenReturn(CompletableFuture.completedFuture(usuario));
+		Mockito.when(service.salvarUsuarioCriptografado(usuario))
+			.thenThrow(new RegraNegocioException("Já existe um usuário cadastrado com este email."));
+		
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		//action and verification
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+												.post(API)
+												.accept(MediaType.APPLICATION_JSON)
+												.contentType(MediaType.APPLICATION_JSON)
+												.content(json);
+		
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+		.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		.andExpect(MockMvcResultMatchers.content().string("Já existe um usuário cadastrado com este email."));
+	
+	}
+	
+	@Test
+	public void deveRetornarServiceUnavailableQuandoACriptografiaEstiverSobrecarregada() throws Exception {
+		//scenario
+		String email = "usuario@email.com";
+		String senha = "123";
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+		
+		CompletableFuture<Usuario> sobrecarga = new CompletableFuture<>();
+		sobrecarga.completeExceptionally(new ServicoIndisponivelException("sobrecarregado"));
+		Mockito.when(service.autenticarAssincrono(Mockito.eq(email), Mockito.eq(senha), Mockito.any())).thenReturn(sobrecarga);
+		
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		//action and verification
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+												.post(API.concat("/autenticar"))
+												.accept(MediaType.APPLICATION_JSON)
+												.contentType(MediaType.APPLICATION_JSON)
+												.content(json);
+		
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+		.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+		.andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+	
+	}
+	
+	@Test
+	public void deveRetornarTooManyRequestsQuandoAsTentativasForemExcedidas() throws Exception {
+		//scenario
+		String email = "usuario@email.com";
+		String senha = "123";
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+		
+		Mockito.when(service.autenticarAssincrono(Mockito.eq(email), Mockito.eq(senha), Mockito.any()))
+			.thenThrow(new TentativasExcedidasException("excedidas", 60));
+		
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		//action and verification
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+												.post(API.concat("/autenticar"))
+												.accept(MediaType.APPLICATION_JSON)
+												.contentType(MediaType.APPLICATION_JSON)
+												.content(json);
+		
+		MvcResult resultado = mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+		.andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+		.andExpect(MockMvcResultMatchers.header().string("Retry-After", "60"));
+	
+	}
+	
+	@Test
+	public void deveRetornarNotModifiedSemConsultarOSaldoQuandoAETagForAAtual() throws Exception {
+		//scenario
+		TokenVerificado token = new TokenVerificado("usuario@email.com", 1l, "usuario", new Date(System.currentTimeMillis() + 60000));
+		Mockito.when(jwtService.verificarToken("token")).thenReturn(Optional.of(token));
+		Mockito.when(lancamentoService.obterVersao(1l)).thenReturn(5l);
+		
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.header("Authorization", "Bearer token")
+				.header("If-None-Match", "\"1-5\""))
+		.andExpect(MockMvcResultMatchers.status().isNotModified())
+		.andExpect(MockMvcResultMatchers.content().string(""));
+		
+		Mockito.verify(service, Mockito.never()).obterPorId(Mockito.anyLong());
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+	
 }
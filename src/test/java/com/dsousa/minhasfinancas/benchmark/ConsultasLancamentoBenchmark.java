@@ -0,0 +1,148 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.Pagina;
+
+// consultas de saldo e pesquisa com o H2 embarcado carregado com um volume próximo ao de produção
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConsultasLancamentoBenchmark {
+
+	static final String[] DESCRICOES = {
+		"conta de luz", "conta de agua", "aluguel", "condominio", "supermercado", "farmacia",
+		"salario", "internet", "telefone", "combustivel", "restaurante", "academia",
+		"cartao de credito", "escola", "plano de saude", "seguro do carro", "padaria", "transferencia"
+	};
+	
+	@Param({"100"})
+	int usuarios;
+	
+	@Param({"1000"})
+	int lancamentosPorUsuario;
+	
+	ConfigurableApplicationContext contexto;
+	LancamentoService service;
+	LancamentoRepository repository;
+	List<Long> idsUsuarios;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:consultas;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas")
+				.run();
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+		UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+		
+		// semente fixa: a mesma massa de dados em todas as execuções
+		Random random = new Random(42);
+		idsUsuarios = new ArrayList<>(usuarios);
+		for(int u = 0; u < usuarios; u++) {
+			Usuario usuario = usuarioRepository.save(Usuario.builder()
+					.nome("usuario " + u).email("usuario" + u + "@email.com").senha("senha").build());
+			idsUsuarios.add(usuario.getId());
+			
+			List<Lancamento> lote = new ArrayList<>(lancamentosPorUsuario);
+			for(int i = 0; i < lancamentosPorUsuario; i++) {
+				String descricao = DESCRICOES[random.nextInt(DESCRICOES.length)];
+				lote.add(Lancamento.builder()
+						.descricao(descricao + " " + (i % 37))
+						.mes(random.nextInt(12) + 1)
+						.ano(2018 + random.nextInt(5))
+						.valor(BigDecimal.valueOf(random.nextInt(500000) + 100, 2))
+						.tipo(descricao.equals("salario") ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+						.usuario(usuario)
+						.build());
+			}
+			service.salvarEmLote(lote);
+			
+			// anos anteriores efetivados e o corrente pendente, como numa base em uso há alguns anos
+			for(int ano = 2018; ano < 2022; ano++) {
+				service.atualizarStatusPorFiltro(Lancamento.builder().usuario(usuario).ano(ano).build(), StatusLancamento.EFETIVADO);
+			}
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+	
+	@Benchmark
+	public BigDecimal saldoArmazenado() {
+		return service.obterSaldoPorUsuario(sortearUsuario());
+	}
+	
+	// agregação que o saldo armazenado substituiu; continua sendo usada na reconciliação
+	@Benchmark
+	public BigDecimal saldoAgregado() {
+		Long idUsuario = sortearUsuario();
+		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		return (receitas == null ? BigDecimal.ZERO : receitas).subtract(despesas == null ? BigDecimal.ZERO : despesas);
+	}
+	
+	@Benchmark
+	public List<Lancamento> pesquisaUmTermo() {
+		return service.pesquisar(sortearUsuario(), "aluguel", 20);
+	}
+	
+	@Benchmark
+	public List<Lancamento> pesquisaVariosTermos() {
+		return service.pesquisar(sortearUsuario(), "conta luz", 20);
+	}
+	
+	@Benchmark
+	public Pagina<LancamentoProjecao> primeiraPagina() {
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(sortearUsuario()).build()).build();
+		return service.buscarPagina(filtro, null, 50);
+	}
+	
+	private Long sortearUsuario() {
+		return idsUsuarios.get(ThreadLocalRandom.current().nextInt(idsUsuarios.size()));
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ConsultasLancamentoBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
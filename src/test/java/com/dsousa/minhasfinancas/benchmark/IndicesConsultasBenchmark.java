@@ -0,0 +1,130 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicesConsultasBenchmark {
+
+	static final int TOTAL_USUARIOS = 10_000;
+	static final int LANCAMENTOS_POR_USUARIO = 50;
+	
+	@Param({"false", "true"})
+	boolean comIndices;
+	
+	Connection conexao;
+	PreparedStatement consultaEmail;
+	PreparedStatement consultaSaldo;
+	PreparedStatement consultaPeriodo;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		conexao = DriverManager.getConnection("jdbc:h2:mem:indices;DB_CLOSE_DELAY=-1", "sa", "sa");
+		try (Statement st = conexao.createStatement()) {
+			st.execute("create schema if not exists financas");
+			st.execute("drop table if exists financas.lancamento");
+			st.execute("drop table if exists financas.usuario");
+			st.execute("create table financas.usuario (id bigint primary key, nome varchar(150), email varchar(100), senha varchar(255))");
+			st.execute("create table financas.lancamento (id bigint primary key, descricao varchar(100), mes integer, ano integer, "
+					+ "id_usuario bigint, valor numeric(16,2), tipo varchar(20), status varchar(20), data_cadastro date)");
+			st.execute("insert into financas.usuario "
+					+ "select x, 'usuario ' || x, 'usuario' || x || '@email.com', 'senha' from system_range(1, " + TOTAL_USUARIOS + ")");
+			st.execute("insert into financas.lancamento "
+					+ "select x, 'lancamento ' || x, mod(x, 12) + 1, 2000 + mod(x / 12, 25), mod(x, " + TOTAL_USUARIOS + ") + 1, "
+					+ "mod(x, 1000) + 1, case when mod(x, 2) = 0 then 'RECEITA' else 'DESPESA' end, "
+					+ "case when mod(x, 3) = 0 then 'PENDENTE' else 'EFETIVADO' end, current_date "
+					+ "from system_range(1, " + (TOTAL_USUARIOS * LANCAMENTOS_POR_USUARIO) + ")");
+			
+			if(comIndices) {
+				// mesmos índices da migração V3 do H2
+				st.execute("create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes)");
+				st.execute("create index idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status, valor)");
+				st.execute("create unique index uk_usuario_email on financas.usuario (email)");
+			}
+			st.execute("analyze");
+		}
+		
+		consultaEmail = conexao.prepareStatement("select * from financas.usuario where email = ?");
+		consultaSaldo = conexao.prepareStatement(
+				"select sum(valor) from financas.lancamento where id_usuario = ? and tipo = ? and status = ?");
+		consultaPeriodo = conexao.prepareStatement(
+				"select * from financas.lancamento where id_usuario = ? and ano = ? and mes = ?");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement st = conexao.createStatement()) {
+			st.execute("drop table financas.lancamento");
+			st.execute("drop table financas.usuario");
+		}
+		conexao.close();
+	}
+	
+	@Benchmark
+	public void buscarPorEmail(Blackhole bh) throws SQLException {
+		consultaEmail.setString(1, "usuario" + usuarioAleatorio() + "@email.com");
+		consumir(consultaEmail, bh);
+	}
+	
+	@Benchmark
+	public void somarSaldo(Blackhole bh) throws SQLException {
+		consultaSaldo.setLong(1, usuarioAleatorio());
+		consultaSaldo.setString(2, "RECEITA");
+		consultaSaldo.setString(3, "EFETIVADO");
+		consumir(consultaSaldo, bh);
+	}
+	
+	@Benchmark
+	public void filtrarPorPeriodo(Blackhole bh) throws SQLException {
+		consultaPeriodo.setLong(1, usuarioAleatorio());
+		consultaPeriodo.setInt(2, 2000 + ThreadLocalRandom.current().nextInt(25));
+		consultaPeriodo.setInt(3, ThreadLocalRandom.current().nextInt(12) + 1);
+		consumir(consultaPeriodo, bh);
+	}
+	
+	private long usuarioAleatorio() {
+		return ThreadLocalRandom.current().nextInt(TOTAL_USUARIOS) + 1;
+	}
+	
+	private void consumir(PreparedStatement consulta, Blackhole bh) throws SQLException {
+		try (ResultSet rs = consulta.executeQuery()) {
+			while(rs.next()) {
+				bh.consume(rs.getObject(1));
+			}
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(IndicesConsultasBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
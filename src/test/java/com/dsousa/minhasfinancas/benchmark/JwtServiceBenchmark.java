@@ -0,0 +1,90 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.TokenVerificado;
+import com.dsousa.minhasfinancas.service.impl.JwtServiceImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	static final String CHAVE_ASSINATURA = "YSBsZWJyZSDDqSBicmFuY2E=";
+	
+	JwtServiceImpl jwtService;
+	
+	Usuario usuario;
+	String token;
+	
+	@Setup
+	public void setUp() {
+		jwtService = new JwtServiceImpl();
+		ReflectionTestUtils.setField(jwtService, "expiracao", "30");
+		ReflectionTestUtils.setField(jwtService, "chaveAssinatura", CHAVE_ASSINATURA);
+		jwtService.inicializar();
+		
+		usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build();
+		token = jwtService.gerarToken(usuario);
+	}
+	
+	// reproduz o caminho anterior do JwtTokenFilter: isTokenValido + obterLoginUsuario,
+	// cada um decodificando a chave e verificando a assinatura novamente
+	@Benchmark
+	public String verificacaoDupla() {
+		Claims claims = Jwts.parser().setSigningKey(CHAVE_ASSINATURA).parseClaimsJws(token).getBody();
+		Date dataEx = claims.getExpiration();
+		LocalDateTime dataExpiracao = dataEx.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+		if(LocalDateTime.now().isAfter(dataExpiracao)) {
+			return null;
+		}
+		return Jwts.parser().setSigningKey(CHAVE_ASSINATURA).parseClaimsJws(token).getBody().getSubject();
+	}
+	
+	@Benchmark
+	public String verificacaoUnica() {
+		Optional<TokenVerificado> tokenVerificado = jwtService.verificarToken(token);
+		return tokenVerificado.get().getLogin();
+	}
+	
+	@Benchmark
+	public String gerarToken() {
+		return jwtService.gerarToken(usuario);
+	}
+	
+	@Benchmark
+	public Claims obterClaims() {
+		return jwtService.obterClaims(token);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
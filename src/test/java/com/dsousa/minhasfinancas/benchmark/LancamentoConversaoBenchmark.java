@@ -0,0 +1,163 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.resource.LancamentoResource;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// trabalho de CPU por requisição que não depende do banco: conversões, validação e serialização
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoConversaoBenchmark {
+
+	// os conversores são privados no resource; o handle é resolvido uma vez e o JIT o trata como chamada direta
+	static final MethodHandle CONVERTER_ENTIDADE = conversor(Lancamento.class);
+	static final MethodHandle CONVERTER_PROJECAO = conversor(LancamentoProjecao.class);
+	static final MethodHandle CONVERTER_DTO = conversor(LancamentoDTO.class, Usuario.class);
+	
+	@Param({"50", "500"})
+	int tamanhoLista;
+	
+	LancamentoResource resource;
+	LancamentoService service;
+	ObjectMapper objectMapper;
+	
+	Usuario usuario;
+	Lancamento lancamento;
+	Lancamento lancamentoInvalido;
+	LancamentoProjecao projecao;
+	LancamentoDTO dto;
+	List<Lancamento> lancamentos;
+	List<LancamentoDTO> dtos;
+	
+	@Setup
+	public void setUp() throws Throwable {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		resource = new LancamentoResource(null, null, null, objectMapper);
+		service = new LancamentoServiceImpl(null, null, null, null);
+		
+		usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").senha("senha").build();
+		lancamento = criarLancamento(1);
+		lancamentoInvalido = criarLancamento(2);
+		lancamentoInvalido.setMes(13);
+		projecao = new LancamentoProjecao(1l, "conta de luz", 3, 2022, BigDecimal.valueOf(150.35), 1l, 
+				TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 0l);
+		dto = (LancamentoDTO) CONVERTER_ENTIDADE.invoke(resource, lancamento);
+		
+		lancamentos = new ArrayList<>(tamanhoLista);
+		dtos = new ArrayList<>(tamanhoLista);
+		for(int i = 0; i < tamanhoLista; i++) {
+			Lancamento item = criarLancamento(i);
+			lancamentos.add(item);
+			dtos.add((LancamentoDTO) CONVERTER_ENTIDADE.invoke(resource, item));
+		}
+	}
+	
+	@Benchmark
+	public Object converterEntidade() throws Throwable {
+		return CONVERTER_ENTIDADE.invoke(resource, lancamento);
+	}
+	
+	@Benchmark
+	public Object converterProjecao() throws Throwable {
+		return CONVERTER_PROJECAO.invoke(resource, projecao);
+	}
+	
+	@Benchmark
+	public Object converterDto() throws Throwable {
+		return CONVERTER_DTO.invoke(resource, dto, usuario);
+	}
+	
+	@Benchmark
+	public Lancamento validar() {
+		service.validar(lancamento);
+		return lancamento;
+	}
+	
+	// o caminho de erro monta a stack trace da RegraNegocioException
+	@Benchmark
+	public Object validarInvalido() {
+		try {
+			service.validar(lancamentoInvalido);
+			return lancamentoInvalido;
+		} catch (RegraNegocioException e) {
+			return e;
+		}
+	}
+	
+	@Benchmark
+	public byte[] serializarEntidades() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(lancamentos);
+	}
+	
+	@Benchmark
+	public byte[] serializarDtos() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dtos);
+	}
+	
+	private Lancamento criarLancamento(int i) {
+		return Lancamento.builder()
+				.id((long) i)
+				.descricao("lancamento " + i)
+				.mes(i % 12 + 1)
+				.ano(2022)
+				.valor(BigDecimal.valueOf(i * 100 + 35, 2))
+				.dataCadastro(LocalDate.of(2022, i % 12 + 1, 1))
+				.tipo(i % 3 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+				.status(StatusLancamento.EFETIVADO)
+				.usuario(usuario)
+				.build();
+	}
+	
+	private static MethodHandle conversor(Class<?>... parametros) {
+		try {
+			Method metodo = LancamentoResource.class.getDeclaredMethod("converter", parametros);
+			metodo.setAccessible(true);
+			return MethodHandles.lookup().unreflect(metodo);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LancamentoConversaoBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LancamentoLoteBenchmark {
+
+	static final int TAMANHO_LOTE = 1000;
+	
+	ConfigurableApplicationContext contexto;
+	LancamentoService service;
+	Usuario usuario;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:lote;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas")
+				.run();
+		service = contexto.getBean(LancamentoService.class);
+		usuario = contexto.getBean(UsuarioRepository.class)
+				.save(Usuario.builder().nome("usuario").email("lote@email.com").senha("senha").build());
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+	
+	// caminho anterior: um POST, um save e um insert por lançamento
+	@Benchmark
+	@OperationsPerInvocation(TAMANHO_LOTE)
+	public void umAUm() {
+		for(Lancamento lancamento : criarLote()) {
+			service.salvar(lancamento);
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(TAMANHO_LOTE)
+	public int emLote() {
+		return service.salvarEmLote(criarLote());
+	}
+	
+	private List<Lancamento> criarLote() {
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		for(int i = 0; i < TAMANHO_LOTE; i++) {
+			lote.add(Lancamento.builder()
+					.descricao("lancamento " + i)
+					.mes(i % 12 + 1)
+					.ano(2022)
+					.valor(BigDecimal.valueOf(i + 1))
+					.tipo(TipoLancamento.DESPESA)
+					.usuario(usuario)
+					.build());
+		}
+		return lote;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LancamentoLoteBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
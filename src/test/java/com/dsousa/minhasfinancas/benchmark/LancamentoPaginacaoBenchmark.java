@@ -0,0 +1,133 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoPaginacaoBenchmark {
+
+	static final int TAMANHO_PAGINA = 50;
+	
+	@Param({"500000"})
+	int totalLancamentos;
+	
+	@Param({"0", "10000", "100000", "400000"})
+	int deslocamento;
+	
+	Connection conexao;
+	PreparedStatement consultaOffset;
+	PreparedStatement consultaKeyset;
+	
+	int anoCursor;
+	int mesCursor;
+	long idCursor;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		conexao = DriverManager.getConnection("jdbc:h2:mem:paginacao;DB_CLOSE_DELAY=-1", "sa", "sa");
+		try (Statement st = conexao.createStatement()) {
+			st.execute("create schema if not exists financas");
+			st.execute("drop table if exists financas.lancamento");
+			st.execute("create table financas.lancamento (id bigint primary key, descricao varchar(100), mes integer, ano integer, "
+					+ "id_usuario bigint, valor numeric(16,2), tipo varchar(20), status varchar(20), data_cadastro date)");
+			st.execute("insert into financas.lancamento "
+					+ "select x, 'lancamento ' || x, mod(x, 12) + 1, 2000 + mod(x / 12, 25), 1, mod(x, 1000) + 1, 'DESPESA', 'EFETIVADO', current_date "
+					+ "from system_range(1, " + totalLancamentos + ")");
+			st.execute("create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes, id)");
+		}
+		
+		consultaOffset = conexao.prepareStatement(
+				"select * from financas.lancamento where id_usuario = ? order by ano, mes, id limit ? offset ?");
+		consultaKeyset = conexao.prepareStatement(
+				"select * from financas.lancamento where id_usuario = ? and ano >= ? "
+				+ "and (ano > ? or (ano = ? and (mes > ? or (mes = ? and id > ?)))) order by ano, mes, id limit ?");
+		
+		// posição do cursor equivalente ao deslocamento, como viria da página anterior
+		if(deslocamento == 0) {
+			anoCursor = 0;
+			mesCursor = 0;
+			idCursor = 0;
+		} else {
+			consultaOffset.setLong(1, 1);
+			consultaOffset.setInt(2, 1);
+			consultaOffset.setInt(3, deslocamento - 1);
+			try (ResultSet rs = consultaOffset.executeQuery()) {
+				rs.next();
+				anoCursor = rs.getInt("ano");
+				mesCursor = rs.getInt("mes");
+				idCursor = rs.getLong("id");
+			}
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement st = conexao.createStatement()) {
+			st.execute("drop table financas.lancamento");
+		}
+		conexao.close();
+	}
+	
+	@Benchmark
+	public void offset(Blackhole bh) throws SQLException {
+		consultaOffset.setLong(1, 1);
+		consultaOffset.setInt(2, TAMANHO_PAGINA);
+		consultaOffset.setInt(3, deslocamento);
+		consumir(consultaOffset, bh);
+	}
+	
+	@Benchmark
+	public void keyset(Blackhole bh) throws SQLException {
+		consultaKeyset.setLong(1, 1);
+		consultaKeyset.setInt(2, anoCursor);
+		consultaKeyset.setInt(3, anoCursor);
+		consultaKeyset.setInt(4, anoCursor);
+		consultaKeyset.setInt(5, mesCursor);
+		consultaKeyset.setInt(6, mesCursor);
+		consultaKeyset.setLong(7, idCursor);
+		consultaKeyset.setInt(8, TAMANHO_PAGINA);
+		consumir(consultaKeyset, bh);
+	}
+	
+	private void consumir(PreparedStatement consulta, Blackhole bh) throws SQLException {
+		try (ResultSet rs = consulta.executeQuery()) {
+			while(rs.next()) {
+				bh.consume(rs.getLong("id"));
+				bh.consume(rs.getString("descricao"));
+			}
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LancamentoPaginacaoBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
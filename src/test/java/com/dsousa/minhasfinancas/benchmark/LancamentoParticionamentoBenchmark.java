@@ -0,0 +1,140 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Year;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// precisa de um PostgreSQL: -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/minhasfinancas
+// -Dbenchmark.postgres.usuario=postgres -Dbenchmark.postgres.senha=...
+// as tabelas ficam no schema benchmark_particionamento e são removidas ao final
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoParticionamentoBenchmark {
+
+	static final String SCHEMA = "benchmark_particionamento";
+	static final int ANOS = 10;
+	static final int USUARIOS = 100;
+	
+	// 10x o volume usado nos demais benchmarks e no teste de carga (100 usuários x 1000 lançamentos)
+	@Param({"1000000"})
+	int totalLancamentos;
+	
+	@Param({"simples", "particionada"})
+	String tabela;
+	
+	Connection conexao;
+	PreparedStatement totalDoAno;
+	PreparedStatement lancamentosDoUsuarioNoAno;
+	
+	int anoAtual;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		conexao = DriverManager.getConnection(
+				System.getProperty("benchmark.postgres.url", "jdbc:postgresql://localhost:5432/minhasfinancas"),
+				System.getProperty("benchmark.postgres.usuario", "postgres"),
+				System.getProperty("benchmark.postgres.senha", "postgres"));
+		anoAtual = Year.now().getValue();
+		
+		try (Statement st = conexao.createStatement()) {
+			st.execute("drop schema if exists " + SCHEMA + " cascade");
+			st.execute("create schema " + SCHEMA);
+			
+			String colunas = "(id bigint not null, descricao varchar(100), mes integer not null, ano integer not null, "
+					+ "id_usuario bigint, valor numeric(16,2), tipo varchar(20), status varchar(20), primary key (id, ano))";
+			if(tabela.equals("particionada")) {
+				st.execute("create table " + SCHEMA + ".lancamento " + colunas + " partition by range (ano)");
+				for(int ano = anoAtual - ANOS + 1; ano <= anoAtual; ano++) {
+					st.execute("create table " + SCHEMA + ".lancamento_" + ano + " partition of " + SCHEMA + ".lancamento "
+							+ "for values from (" + ano + ") to (" + (ano + 1) + ")");
+				}
+			} else {
+				st.execute("create table " + SCHEMA + ".lancamento " + colunas);
+			}
+			
+			// histórico distribuído igualmente pelos últimos ANOS anos
+			st.execute("insert into " + SCHEMA + ".lancamento "
+					+ "select x, 'lancamento ' || x, x % 12 + 1, " + anoAtual + " - (x / 12) % " + ANOS + ", x % " + USUARIOS + " + 1, "
+					+ "x % 1000 + 1, case when x % 2 = 0 then 'RECEITA' else 'DESPESA' end, 'EFETIVADO' "
+					+ "from generate_series(1, " + totalLancamentos + ") x");
+			st.execute("create index on " + SCHEMA + ".lancamento (id_usuario, ano, mes)");
+			if(tabela.equals("simples")) {
+				// a tabela simples recebe um índice iniciado pelo ano: a comparação é poda de partições contra
+				// o melhor índice equivalente, e não contra uma varredura completa
+				st.execute("create index on " + SCHEMA + ".lancamento (ano, status) include (tipo, valor)");
+			}
+			st.execute("analyze " + SCHEMA + ".lancamento");
+		}
+		
+		// o mesmo SQL nas duas tabelas: a diferença está só em quantas linhas e índices o plano precisa tocar
+		totalDoAno = conexao.prepareStatement("select tipo, sum(valor) from " + SCHEMA + ".lancamento "
+				+ "where ano = ? and status = 'EFETIVADO' group by tipo");
+		lancamentosDoUsuarioNoAno = conexao.prepareStatement("select id, descricao, mes, valor from " + SCHEMA + ".lancamento "
+				+ "where id_usuario = ? and ano = ? order by mes, id");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement st = conexao.createStatement()) {
+			st.execute("drop schema " + SCHEMA + " cascade");
+		}
+		conexao.close();
+	}
+	
+	// varredura do ano corrente inteiro, como nos agregados por ano
+	@Benchmark
+	public void totalDoAnoAtual(Blackhole bh) throws SQLException {
+		totalDoAno.setInt(1, anoAtual);
+		try (ResultSet rs = totalDoAno.executeQuery()) {
+			while(rs.next()) {
+				bh.consume(rs.getString(1));
+				bh.consume(rs.getBigDecimal(2));
+			}
+		}
+	}
+	
+	// consulta da listagem: usuário e ano, servida pelo índice
+	@Benchmark
+	public void lancamentosDoUsuarioNoAnoAtual(Blackhole bh) throws SQLException {
+		lancamentosDoUsuarioNoAno.setLong(1, 1);
+		lancamentosDoUsuarioNoAno.setInt(2, anoAtual);
+		try (ResultSet rs = lancamentosDoUsuarioNoAno.executeQuery()) {
+			while(rs.next()) {
+				bh.consume(rs.getLong(1));
+				bh.consume(rs.getString(2));
+			}
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LancamentoParticionamentoBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
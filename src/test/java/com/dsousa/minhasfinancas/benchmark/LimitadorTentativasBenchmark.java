@@ -0,0 +1,66 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.dsousa.minhasfinancas.service.impl.LimitadorTentativas;
+
+// custo por requisição do limitador de login, que roda antes de qualquer consulta ou hash
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LimitadorTentativasBenchmark {
+
+	static final int CHAVES = 10000;
+	
+	LimitadorTentativas limitador;
+	String[] emails;
+	String[] enderecos;
+	
+	@Setup
+	public void setUp() {
+		// limites altos: mede só a contabilização, sem o custo de montar a exceção
+		limitador = new LimitadorTentativas(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 60, CHAVES * 2);
+		emails = new String[CHAVES];
+		enderecos = new String[CHAVES];
+		for(int i = 0; i < CHAVES; i++) {
+			emails[i] = "usuario" + i + "@email.com";
+			enderecos[i] = "10.0." + (i / 250) + "." + (i % 250);
+		}
+	}
+	
+	@Benchmark
+	public void mesmaChave() {
+		limitador.registrar(emails[0], enderecos[0]);
+	}
+	
+	@Benchmark
+	public void chavesDistribuidas() {
+		int i = ThreadLocalRandom.current().nextInt(CHAVES);
+		limitador.registrar(emails[i], enderecos[i]);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LimitadorTentativasBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.dsousa.minhasfinancas.carga;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+class EstatisticasOperacao {
+
+	private static final long MAXIMO_REGISTRAVEL = TimeUnit.MINUTES.toMicros(1);
+	
+	final String nome;
+	private final Histogram latencias = new ConcurrentHistogram(MAXIMO_REGISTRAVEL, 3);
+	private final LongAdder erros = new LongAdder();
+	
+	EstatisticasOperacao(String nome) {
+		this.nome = nome;
+	}
+	
+	void registrar(long nanos, boolean sucesso) {
+		latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAXIMO_REGISTRAVEL));
+		if(!sucesso) {
+			erros.increment();
+		}
+	}
+	
+	String linha(double segundos) {
+		long total = latencias.getTotalCount();
+		return String.format("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+				nome, total, erros.sum(), total / segundos,
+				milis(latencias.getValueAtPercentile(50)),
+				milis(latencias.getValueAtPercentile(90)),
+				milis(latencias.getValueAtPercentile(99)),
+				milis(latencias.getValueAtPercentile(99.9)),
+				milis(latencias.getMaxValue()));
+	}
+	
+	static String cabecalho() {
+		return String.format("%-14s %9s %7s %10s %9s %9s %9s %9s %9s",
+				"operacao", "total", "erros", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+	}
+	
+	private static double milis(long micros) {
+		return micros / 1000.0;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.dsousa.minhasfinancas.carga;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+// carrega a massa direto por JDBC em lotes: milhões de linhas em segundos, sem passar pelo Hibernate
+class GeradorMassa {
+
+	static final String SENHA = "senha";
+	
+	static final String[] DESCRICOES = {
+		"conta de luz", "conta de agua", "aluguel", "condominio", "supermercado", "farmacia",
+		"salario", "internet", "telefone", "combustivel", "restaurante", "academia",
+		"cartao de credito", "escola", "plano de saude", "seguro do carro", "padaria", "transferencia"
+	};
+	
+	private static final int TAMANHO_LOTE = 1000;
+	private static final int IDS_POR_USUARIO = 200;
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final Random random = new Random(42);
+	
+	GeradorMassa(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	List<UsuarioCarga> gerar(int usuarios, int lancamentosPorUsuario, String senhaCriptografada) {
+		List<Object[]> linhasUsuarios = new ArrayList<>(usuarios);
+		for(int u = 0; u < usuarios; u++) {
+			linhasUsuarios.add(new Object[] {"usuario " + u, email(u), senhaCriptografada});
+		}
+		jdbcTemplate.batchUpdate("insert into financas.usuario (nome, email, senha) values (?, ?, ?)", linhasUsuarios);
+		
+		Map<String, Long> idsPorEmail = new HashMap<>();
+		jdbcTemplate.query("select id, email from financas.usuario", 
+				rs -> { idsPorEmail.put(rs.getString("email"), rs.getLong("id")); });
+		
+		StatusLancamento[] status = StatusLancamento.values();
+		List<Object[]> lote = new ArrayList<>(TAMANHO_LOTE);
+		List<UsuarioCarga> resultado = new ArrayList<>(usuarios);
+		for(int u = 0; u < usuarios; u++) {
+			Long idUsuario = idsPorEmail.get(email(u));
+			for(int i = 0; i < lancamentosPorUsuario; i++) {
+				String descricao = DESCRICOES[random.nextInt(DESCRICOES.length)];
+				lote.add(new Object[] {
+						descricao + " " + (i % 37),
+						random.nextInt(12) + 1,
+						2018 + random.nextInt(5),
+						BigDecimal.valueOf(random.nextInt(500000) + 100, 2),
+						(descricao.equals("salario") ? TipoLancamento.RECEITA : TipoLancamento.DESPESA).name(),
+						status[random.nextInt(status.length)].name(),
+						idUsuario
+				});
+				if(lote.size() == TAMANHO_LOTE) {
+					inserirLancamentos(lote);
+				}
+			}
+			inserirLancamentos(lote);
+			
+			List<Long> idsLancamentos = jdbcTemplate.queryForList(
+					"select id from financas.lancamento where id_usuario = ? order by id limit " + IDS_POR_USUARIO, Long.class, idUsuario);
+			resultado.add(new UsuarioCarga(idUsuario, email(u), idsLancamentos));
+		}
+		return resultado;
+	}
+	
+	private void inserirLancamentos(List<Object[]> lote) {
+		if(lote.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate("insert into financas.lancamento (descricao, mes, ano, valor, tipo, status, id_usuario) "
+				+ "values (?, ?, ?, ?, ?, ?, ?)", lote);
+		lote.clear();
+	}
+	
+	private static String email(int indice) {
+		return "carga" + indice + "@email.com";
+	}
+	
+	static class UsuarioCarga {
+	
+		final Long id;
+		final String email;
+		final List<Long> idsLancamentos;
+		
+		UsuarioCarga(Long id, String email, List<Long> idsLancamentos) {
+			this.id = id;
+			this.email = email;
+			this.idsLancamentos = idsLancamentos;
+		}
+	
+	}
+
+}
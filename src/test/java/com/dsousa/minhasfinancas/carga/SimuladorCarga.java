@@ -0,0 +1,226 @@
+package com.dsousa.minhasfinancas.carga;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.dto.UsuarioDTO;
+import com.dsousa.minhasfinancas.carga.GeradorMassa.UsuarioCarga;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+// teste de carga local: sobe a aplicação no perfil de teste (H2), gera a massa e dispara um mix de requisições
+//   mvn -P carga verify -Dcarga.usuarios=200 -Dcarga.lancamentos=2000 -Dcarga.concorrencia=64 -Dcarga.duracao=120
+public class SimuladorCarga {
+
+	private final int usuarios = Integer.getInteger("carga.usuarios", 100);
+	private final int lancamentosPorUsuario = Integer.getInteger("carga.lancamentos", 1000);
+	private final int concorrencia = Integer.getInteger("carga.concorrencia", 32);
+	private final int duracaoSegundos = Integer.getInteger("carga.duracao", 60);
+	private final int aquecimentoSegundos = Integer.getInteger("carga.aquecimento", 15);
+	private final int pausaMs = Integer.getInteger("carga.pausa-ms", 0);
+	
+	// peso de cada operação no mix, aproximando o uso real: muita leitura, pouco login
+	private final Map<String, Integer> pesos = new LinkedHashMap<>();
+	private final Map<String, EstatisticasOperacao> estatisticas = new LinkedHashMap<>();
+	private final List<String> sorteio = new ArrayList<>();
+	
+	private RestTemplate rest;
+	private String base;
+	private volatile boolean medindo;
+	private volatile boolean executando = true;
+	
+	public static void main(String[] args) throws Exception {
+		new SimuladorCarga().executar();
+	}
+	
+	SimuladorCarga() {
+		pesos.put("login", 2);
+		pesos.put("listar", 30);
+		pesos.put("pesquisar", 15);
+		pesos.put("criar", 13);
+		pesos.put("alterarStatus", 10);
+		pesos.put("saldo", 30);
+		for(Map.Entry<String, Integer> peso : pesos.entrySet()) {
+			estatisticas.put(peso.getKey(), new EstatisticasOperacao(peso.getKey()));
+			sorteio.addAll(Collections.nCopies(peso.getValue(), peso.getKey()));
+		}
+	}
+	
+	void executar() throws Exception {
+		// o pool de keep-alive do HttpURLConnection tem 5 conexões por padrão
+		System.setProperty("http.maxConnections", String.valueOf(concorrencia));
+		
+		ConfigurableApplicationContext contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+						"spring.datasource.hikari.maximum-pool-size=" + Math.max(10, concorrencia / 2),
+						"seguranca.tentativas.maximo-por-email=" + Integer.MAX_VALUE,
+						"seguranca.tentativas.maximo-por-conta=" + Integer.MAX_VALUE,
+						"seguranca.tentativas.maximo-por-endereco=" + Integer.MAX_VALUE)
+				.run();
+		try {
+			base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			rest = criarRestTemplate();
+			
+			long inicioMassa = System.nanoTime();
+			String senhaCriptografada = contexto.getBean(PasswordEncoder.class).encode(GeradorMassa.SENHA);
+			List<UsuarioCarga> massa = new GeradorMassa(contexto.getBean(JdbcTemplate.class))
+					.gerar(usuarios, lancamentosPorUsuario, senhaCriptografada);
+			contexto.getBean(LancamentoService.class).reconciliarSaldos();
+			System.out.printf("massa: %d usuarios x %d lancamentos em %d ms%n", usuarios, lancamentosPorUsuario,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioMassa));
+			
+			disparar(massa);
+		} finally {
+			contexto.close();
+		}
+	}
+	
+	private void disparar(List<UsuarioCarga> massa) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+		for(int i = 0; i < concorrencia; i++) {
+			UsuarioCarga usuario = massa.get(i % massa.size());
+			executor.execute(() -> simularUsuario(usuario));
+		}
+		
+		TimeUnit.SECONDS.sleep(aquecimentoSegundos);
+		medindo = true;
+		long inicio = System.nanoTime();
+		TimeUnit.SECONDS.sleep(duracaoSegundos);
+		medindo = false;
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		
+		executando = false;
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+		
+		System.out.printf("%nconcorrencia %d, %.0f s medidos apos %d s de aquecimento%n", concorrencia, segundos, aquecimentoSegundos);
+		System.out.println(EstatisticasOperacao.cabecalho());
+		for(EstatisticasOperacao operacao : estatisticas.values()) {
+			System.out.println(operacao.linha(segundos));
+		}
+	}
+	
+	private void simularUsuario(UsuarioCarga usuario) {
+		String token = autenticar(usuario);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		
+		while(executando) {
+			String operacao = sorteio.get(random.nextInt(sorteio.size()));
+			long inicio = System.nanoTime();
+			boolean sucesso;
+			try {
+				sucesso = executarOperacao(operacao, usuario, token, random);
+			} catch (RuntimeException e) {
+				sucesso = false;
+			}
+			if(medindo) {
+				estatisticas.get(operacao).registrar(System.nanoTime() - inicio, sucesso);
+			}
+			
+			if(pausaMs > 0) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(pausaMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	private boolean executarOperacao(String operacao, UsuarioCarga usuario, String token, ThreadLocalRandom random) {
+		switch(operacao) {
+		case "login":
+			return autenticar(usuario) != null;
+		case "listar":
+			return get("/api/lancamentos?usuario=" + usuario.id + "&ano=" + (2018 + random.nextInt(5)) + "&tamanho=50", token);
+		case "pesquisar":
+			String termo = GeradorMassa.DESCRICOES[random.nextInt(GeradorMassa.DESCRICOES.length)];
+			return get("/api/lancamentos/pesquisa?usuario=" + usuario.id + "&termos=" + termo.replace(' ', '+') + "&limite=20", token);
+		case "criar":
+			LancamentoDTO dto = LancamentoDTO.builder()
+					.descricao("carga " + random.nextInt(1000))
+					.mes(random.nextInt(12) + 1)
+					.ano(2022)
+					.valor(BigDecimal.valueOf(random.nextInt(100000) + 100, 2))
+					.tipo("DESPESA")
+					.usuario(usuario.id)
+					.build();
+			return enviar(HttpMethod.POST, "/api/lancamentos", dto, token);
+		case "alterarStatus":
+			Long id = usuario.idsLancamentos.get(random.nextInt(usuario.idsLancamentos.size()));
+			StatusLancamento status = random.nextBoolean() ? StatusLancamento.EFETIVADO : StatusLancamento.CANCELADO;
+			return enviar(HttpMethod.PUT, "/api/lancamentos/" + id + "/atualiza-status", new AtualizaStatusDTO(status.name()), token);
+		default:
+			return get("/api/usuarios/" + usuario.id + "/saldo", token);
+		}
+	}
+	
+	private String autenticar(UsuarioCarga usuario) {
+		UsuarioDTO dto = UsuarioDTO.builder().email(usuario.email).senha(GeradorMassa.SENHA).build();
+		ResponseEntity<JsonNode> resposta = rest.postForEntity(base + "/api/usuarios/autenticar", dto, JsonNode.class);
+		if(!resposta.getStatusCode().is2xxSuccessful() || resposta.getBody() == null) {
+			return null;
+		}
+		return resposta.getBody().path("token").asText();
+	}
+	
+	private boolean get(String caminho, String token) {
+		return rest.exchange(base + caminho, HttpMethod.GET, new HttpEntity<>(cabecalhos(token)), String.class)
+				.getStatusCode().is2xxSuccessful();
+	}
+	
+	private boolean enviar(HttpMethod metodo, String caminho, Object corpo, String token) {
+		return rest.exchange(base + caminho, metodo, new HttpEntity<>(corpo, cabecalhos(token)), String.class)
+				.getStatusCode().is2xxSuccessful();
+	}
+	
+	private static HttpHeaders cabecalhos(String token) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setBearerAuth(token);
+		return headers;
+	}
+	
+	private static RestTemplate criarRestTemplate() {
+		RestTemplate rest = new RestTemplate(new SimpleClientHttpRequestFactory());
+		// status de erro entram na estatística da operação em vez de virar exceção
+		rest.setErrorHandler(new DefaultResponseErrorHandler() {
+			@Override
+			public boolean hasError(ClientHttpResponse response) {
+				return false;
+			}
+		});
+		return rest;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.JwtService;
+
+// o exportador do Prometheus fica desligado nos testes sem @AutoConfigureMetrics
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"seguranca.jwt.stateless=true", "seguranca.metricas.senha=segredo"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class ColetaMetricasTest {
+
+	static final String PROMETHEUS = "/actuator/prometheus";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	JwtService jwtService;
+	
+	@Test
+	public void deveRecusarAColetaSemCredencial() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(PROMETHEUS))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+	
+	@Test
+	public void deveRecusarAColetaComSenhaErrada() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(PROMETHEUS).header("Authorization", basic("prometheus", "errada")))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+	
+	@Test
+	public void deveRecusarAColetaComOTokenDeUmUsuario() throws Exception {
+		//scenario
+		String token = jwtService.gerarToken(Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build());
+		
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(PROMETHEUS).header("Authorization", "Bearer " + token))
+		.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+	
+	@Test
+	public void devePermitirAColetaComACredencialEstatica() throws Exception {
+		//action and verification
+		mvc.perform(MockMvcRequestBuilders.get(PROMETHEUS).header("Authorization", basic("prometheus", "segredo")))
+		.andExpect(MockMvcResultMatchers.status().isOk())
+		.andExpect(MockMvcResultMatchers.content().string(Matchers.containsString("jvm_memory_used_bytes")));
+	}
+	
+	private static String basic(String usuario, String senha) {
+		return "Basic " + Base64.getEncoder().encodeToString((usuario + ":" + senha).getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasServicosTest {
+
+	SimpleMeterRegistry registry;
+	LancamentoService service;
+	
+	@BeforeEach
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		AspectJProxyFactory fabrica = new AspectJProxyFactory(new LancamentoServiceImpl(null, null, null, null));
+		fabrica.addAspect(new MetricasServicos(registry));
+		service = fabrica.getProxy();
+	}
+	
+	@Test
+	public void deveContarChamadasEErrosPorMetodo() {
+		//scenario
+		Lancamento valido = Lancamento.builder()
+				.descricao("conta de luz").mes(1).ano(2022).valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.DESPESA).usuario(Usuario.builder().id(1l).build())
+				.build();
+		
+		//action
+		service.validar(valido);
+		service.validar(valido);
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.validar(new Lancamento()));
+		
+		//verification
+		Assertions.assertEquals(2, timer("sucesso").count());
+		Assertions.assertEquals(1, timer("erro").count());
+		Assertions.assertNotNull(timer("sucesso").takeSnapshot().percentileValues());
+	}
+	
+	private Timer timer(String resultado) {
+		return registry.get("servico.chamadas")
+				.tag("servico", "LancamentoServiceImpl")
+				.tag("metodo", "validar")
+				.tag("resultado", resultado)
+				.timer();
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.ArquivoLancamento;
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
+import com.dsousa.minhasfinancas.model.entity.TotalArquivado;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class ArquivoLancamentoRepositoryTest {
+
+	@Autowired
+	ArquivoLancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveSalvarUmArquivoELerOsTotaisSemDescompactar() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		byte[] dados = {1, 2, 3, 4};
+		criarEPersistirUmArquivo(usuario, 2018, dados, 
+				new TotalArquivado(1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100), 2l),
+				new TotalArquivado(2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(30), 1l),
+				new TotalArquivado(2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(50), 1l));
+		criarEPersistirUmArquivo(usuario, 2017, new byte[0], 
+				new TotalArquivado(12, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10), 1l));
+		entityManager.flush();
+		entityManager.clear();
+		
+		List<Integer> anos = repository.obterAnos(usuario.getId());
+		BigDecimal receitas = repository.obterSaldoPorTipoEStatus(usuario.getId(), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		BigDecimal despesas = repository.obterSaldoPorTipoEStatus(usuario.getId(), TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		List<TotalLancamento> totais = repository.obterTotaisPorMes(usuario.getId());
+		List<TotalLancamento> totaisDoAno = repository.obterTotaisPorMesNoAno(usuario.getId(), 2018);
+		ArquivoLancamento arquivo = repository.findById(new ChaveArquivoLancamento(usuario.getId(), 2018)).get();
+		
+		assertEquals(Arrays.asList(2017, 2018), anos);
+		assertEquals(0, BigDecimal.valueOf(110).compareTo(receitas));
+		assertEquals(0, BigDecimal.valueOf(30).compareTo(despesas));
+		assertEquals(4, totais.size());
+		assertEquals(2017, totais.get(0).getAno());
+		assertEquals(3, totaisDoAno.size());
+		assertEquals(2l, totaisDoAno.get(0).getQuantidade());
+		assertArrayEquals(dados, arquivo.getDados());
+	}
+	
+	@Test
+	public void deveRemoverOsArquivosJuntoComOUsuario() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		criarEPersistirUmArquivo(usuario, 2018, new byte[0], 
+				new TotalArquivado(1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100), 2l));
+		entityManager.flush();
+		
+		entityManager.getEntityManager()
+			.createNativeQuery("delete from financas.usuario where id = :id")
+			.setParameter("id", usuario.getId())
+			.executeUpdate();
+		entityManager.clear();
+		
+		assertTrue(repository.obterAnos(usuario.getId()).isEmpty());
+		assertNull(repository.obterSaldoPorTipoEStatus(usuario.getId(), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO));
+	}
+	
+	private ArquivoLancamento criarEPersistirUmArquivo(Usuario usuario, Integer ano, byte[] dados, TotalArquivado... totais) {
+		ArquivoLancamento arquivo = ArquivoLancamento.builder()
+				.idUsuario(usuario.getId())
+				.ano(ano)
+				.quantidade(totais.length)
+				.dados(dados)
+				.dataArquivamento(LocalDate.now())
+				.totais(Arrays.asList(totais))
+				.build();
+		return entityManager.persist(arquivo);
+	}
+
+}
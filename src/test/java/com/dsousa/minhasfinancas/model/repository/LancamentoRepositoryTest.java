@@ -2,9 +2,18 @@ package com.dsousa.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import javax.persistence.OptimisticLockException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,22 +21,28 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 public class LancamentoRepositoryTest {
 
 	@Autowired
 	LancamentoRepository repository;
 	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
 	@Autowired
 	TestEntityManager entityManager;
 	
@@ -48,6 +63,50 @@ public class LancamentoRepositoryTest {
 										
 	}
 	
+	@Test
+	public void deveInserirLancamentosEmLote() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for(int i = 0; i < 120; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			lancamentos.add(lancamento);
+		}
+		
+		repository.inserirEmLote(lancamentos);
+		
+		long idsDistintos = lancamentos.stream().map(Lancamento::getId).distinct().count();
+		assertEquals(120, idsDistintos);
+		assertEquals(120, repository.count());
+		assertFalse(entityManager.getEntityManager().contains(lancamentos.get(0)));
+	}
+	
+	@Test
+	public void deveAtualizarOStatusDeVariosLancamentosEmUmUnicoUpdate() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento janeiro = criarEPersistirUmLancamento(usuario, 2020, 1);
+		Lancamento fevereiro = criarEPersistirUmLancamento(usuario, 2020, 2);
+		Lancamento outroJaneiro = criarEPersistirUmLancamento(usuario, 2020, 1);
+		outroJaneiro.setStatus(StatusLancamento.EFETIVADO);
+		
+		List<EstadoSaldoLancamento> porIds = repository.atualizarStatus(usuario.getId(), Arrays.asList(janeiro.getId(), outroJaneiro.getId()), StatusLancamento.EFETIVADO);
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setMes(2);
+		List<EstadoSaldoLancamento> porFiltro = repository.atualizarStatus(filtro, StatusLancamento.CANCELADO);
+		
+		assertEquals(1, porIds.size());
+		assertEquals(StatusLancamento.PENDENTE, porIds.get(0).getStatus());
+		assertEquals(usuario.getId(), porIds.get(0).getIdUsuario());
+		assertEquals(0, janeiro.getValor().compareTo(porIds.get(0).getValor()));
+		assertEquals(1, porFiltro.size());
+		assertEquals(StatusLancamento.PENDENTE, porFiltro.get(0).getStatus());
+		assertEquals(fevereiro.getTipo(), porFiltro.get(0).getTipo());
+		assertEquals(StatusLancamento.EFETIVADO, entityManager.find(Lancamento.class, janeiro.getId()).getStatus());
+		assertEquals(StatusLancamento.CANCELADO, entityManager.find(Lancamento.class, fevereiro.getId()).getStatus());
+	}
+	
 	@Test
 	public void deveDeletarUmLancamento() {
 		Lancamento lancamento = criarEPersistirUmLancamento();
@@ -83,6 +142,299 @@ public class LancamentoRepositoryTest {
 		
 	}
 
+	@Test
+	public void deveBuscarPaginasOrdenadasPorAnoMesEId() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento l1 = criarEPersistirUmLancamento(usuario, 2020, 3);
+		Lancamento l2 = criarEPersistirUmLancamento(usuario, 2019, 12);
+		Lancamento l3 = criarEPersistirUmLancamento(usuario, 2020, 1);
+		Lancamento l4 = criarEPersistirUmLancamento(usuario, 2020, 1);
+		Lancamento l5 = criarEPersistirUmLancamento(usuario, 2021, 1);
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		
+		List<LancamentoProjecao> primeiraPagina = repository.buscarPagina(filtro, null, 2);
+		LancamentoProjecao ultimo = primeiraPagina.get(1);
+		CursorLancamento cursor = new CursorLancamento(ultimo.getAno(), ultimo.getMes(), ultimo.getId());
+		List<LancamentoProjecao> segundaPagina = repository.buscarPagina(filtro, cursor, 2);
+		ultimo = segundaPagina.get(1);
+		cursor = new CursorLancamento(ultimo.getAno(), ultimo.getMes(), ultimo.getId());
+		List<LancamentoProjecao> terceiraPagina = repository.buscarPagina(filtro, cursor, 2);
+		
+		assertIterableEquals(Arrays.asList(l2.getId(), l3.getId()), ids(primeiraPagina));
+		assertIterableEquals(Arrays.asList(l4.getId(), l1.getId()), ids(segundaPagina));
+		assertIterableEquals(Arrays.asList(l5.getId()), ids(terceiraPagina));
+	}
+	
+	@Test
+	public void deveBuscarUmaPaginaEmUmaUnicaConsultaSemCarregarEntidades() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		for(int mes = 1; mes <= 12; mes++) {
+			criarEPersistirUmLancamento(usuario, 2020, mes);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		
+		Statistics estatisticas = entityManager.getEntityManager()
+				.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		estatisticas.clear();
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		List<LancamentoProjecao> pagina = repository.buscarPagina(filtro, null, 10);
+		
+		assertEquals(10, pagina.size());
+		assertEquals(usuario.getId(), pagina.get(0).getIdUsuario());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+		assertEquals(0, estatisticas.getEntityLoadCount());
+	}
+	
+	@Test
+	public void deveObterUmLancamentoProjetadoEmUmaUnicaConsulta() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		Statistics estatisticas = entityManager.getEntityManager()
+				.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		estatisticas.clear();
+		
+		Optional<LancamentoProjecao> projecao = repository.obterProjecaoPorId(lancamento.getId());
+		
+		assertTrue(projecao.isPresent());
+		assertEquals(usuario.getId(), projecao.get().getIdUsuario());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+		assertEquals(0, estatisticas.getEntityLoadCount());
+	}
+	
+	@Test
+	public void deveRecusarUmLancamentoComReferenciaAUmUsuarioInexistente() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuarioRepository.getReferenceById(Long.MAX_VALUE));
+		
+		assertThrows(DataIntegrityViolationException.class, () -> repository.saveAndFlush(lancamento));
+	}
+	
+	@Test
+	public void deveIncrementarAVersaoERecusarUmaAtualizacaoConcorrente() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		assertEquals(0l, lancamento.getVersao());
+		
+		lancamento.setDescricao("descricao alterada");
+		entityManager.flush();
+		assertEquals(1l, lancamento.getVersao());
+		
+		// outra transação altera o registro depois da leitura
+		entityManager.getEntityManager()
+				.createNativeQuery("update financas.lancamento set versao = versao + 1 where id = :id")
+				.setParameter("id", lancamento.getId())
+				.executeUpdate();
+		
+		lancamento.setValor(BigDecimal.valueOf(99));
+		assertThrows(OptimisticLockException.class, () -> entityManager.flush());
+	}
+	
+	@Test
+	public void deveDeletarUmLancamentoDoUsuarioEmUmaUnicaInstrucao() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		Statistics estatisticas = entityManager.getEntityManager()
+				.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		estatisticas.clear();
+		
+		Optional<EstadoSaldoLancamento> estado = repository.deletarDoUsuario(lancamento.getId(), usuario.getId());
+		
+		assertTrue(estado.isPresent());
+		assertEquals(TipoLancamento.RECEITA, estado.get().getTipo());
+		assertEquals(StatusLancamento.PENDENTE, estado.get().getStatus());
+		assertEquals(0, BigDecimal.valueOf(10).compareTo(estado.get().getValor()));
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+		assertNull(entityManager.find(Lancamento.class, lancamento.getId()));
+	}
+	
+	@Test
+	public void naoDeveDeletarUmLancamentoDeOutroUsuario() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		Optional<EstadoSaldoLancamento> estado = repository.deletarDoUsuario(lancamento.getId(), usuario.getId() + 1);
+		
+		assertFalse(estado.isPresent());
+		assertNotNull(entityManager.find(Lancamento.class, lancamento.getId()));
+	}
+	
+	@Test
+	public void deveAtualizarOStatusDoUsuarioERetornarOEstadoAnteriorEmUmaUnicaInstrucao() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		Statistics estatisticas = entityManager.getEntityManager()
+				.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		estatisticas.clear();
+		
+		Optional<StatusAlteradoLancamento> alteracao = repository.atualizarStatusDoUsuario(lancamento.getId(), usuario.getId(), StatusLancamento.EFETIVADO);
+		
+		assertTrue(alteracao.isPresent());
+		assertEquals(StatusLancamento.PENDENTE, alteracao.get().getStatusAnterior());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+		
+		LancamentoProjecao devolvido = alteracao.get().getLancamento();
+		assertEquals(lancamento.getId(), devolvido.getId());
+		assertEquals("lancamento qualquer", devolvido.getDescricao());
+		assertEquals(2020, devolvido.getAno());
+		assertEquals(1, devolvido.getMes());
+		assertEquals(0, BigDecimal.valueOf(10).compareTo(devolvido.getValor()));
+		assertEquals(TipoLancamento.RECEITA, devolvido.getTipo());
+		assertEquals(StatusLancamento.EFETIVADO, devolvido.getStatus());
+		assertEquals(1l, devolvido.getVersao());
+		assertEquals(usuario.getId(), devolvido.getIdUsuario());
+		
+		Lancamento atualizado = entityManager.find(Lancamento.class, lancamento.getId());
+		assertEquals(StatusLancamento.EFETIVADO, atualizado.getStatus());
+		assertEquals(1l, atualizado.getVersao());
+	}
+	
+	@Test
+	public void naoDeveAtualizarOStatusDeUmLancamentoDeOutroUsuario() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		assertFalse(repository.atualizarStatusDoUsuario(lancamento.getId(), usuario.getId() + 1, StatusLancamento.CANCELADO).isPresent());
+		
+		Lancamento intocado = entityManager.find(Lancamento.class, lancamento.getId());
+		assertEquals(StatusLancamento.PENDENTE, intocado.getStatus());
+		assertEquals(0l, intocado.getVersao());
+	}
+	
+	@Test
+	public void naoDeveIncrementarAVersaoQuandoOStatusNaoMudar() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		assertFalse(repository.atualizarStatusDoUsuario(lancamento.getId(), usuario.getId(), StatusLancamento.PENDENTE).isPresent());
+		assertEquals(0l, entityManager.find(Lancamento.class, lancamento.getId()).getVersao());
+	}
+	
+	@Test
+	public void naoDeveCriarParticoesForaDoPostgreSQL() {
+		assertEquals(0, repository.criarParticoes(2020, 2030));
+	}
+	
+	private List<Long> ids(List<LancamentoProjecao> lancamentos) {
+		return lancamentos.stream().map(LancamentoProjecao::getId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void deveTotalizarOsLancamentosPorMesTipoEStatus() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		criarEPersistirUmLancamento(usuario, 2020, 1);
+		criarEPersistirUmLancamento(usuario, 2020, 1);
+		Lancamento efetivado = criarEPersistirUmLancamento(usuario, 2020, 1);
+		efetivado.setStatus(StatusLancamento.EFETIVADO);
+		criarEPersistirUmLancamento(usuario, 2021, 2);
+		entityManager.flush();
+		
+		List<TotalLancamento> totais = repository.obterTotaisPorMes(usuario.getId());
+		List<TotalLancamento> totaisDe2021 = repository.obterTotaisPorMesNoAno(usuario.getId(), 2021);
+		
+		assertEquals(3, totais.size());
+		assertEquals(StatusLancamento.EFETIVADO, totais.get(0).getStatus());
+		assertEquals(1l, totais.get(0).getQuantidade());
+		assertEquals(StatusLancamento.PENDENTE, totais.get(1).getStatus());
+		assertEquals(2l, totais.get(1).getQuantidade());
+		assertEquals(0, BigDecimal.valueOf(20).compareTo(totais.get(1).getValor()));
+		assertEquals(1, totaisDe2021.size());
+		assertEquals(2, totaisDe2021.get(0).getMes());
+	}
+	
+	@Test
+	public void devePesquisarPorTodosOsTermosOrdenandoPelaRelevancia() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento contaDeLuz = criarEPersistirUmLancamento(usuario, "Conta de luz da casa");
+		Lancamento aluguelCasa = criarEPersistirUmLancamento(usuario, "Aluguel casa");
+		criarEPersistirUmLancamento(usuario, "Aluguel garagem");
+		Lancamento casa = criarEPersistirUmLancamento(usuario, "Casa");
+		entityManager.flush();
+		
+		List<Lancamento> aluguelDaCasa = repository.pesquisarPorDescricao(usuario.getId(), Arrays.asList("aluguel", "casa"), 10);
+		List<Lancamento> casas = repository.pesquisarPorDescricao(usuario.getId(), Arrays.asList("casa"), 10);
+		List<Lancamento> nenhum = repository.pesquisarPorDescricao(usuario.getId(), Arrays.asList("100%"), 10);
+		
+		assertIterableEquals(Arrays.asList(aluguelCasa), aluguelDaCasa);
+		assertIterableEquals(Arrays.asList(casa, aluguelCasa, contaDeLuz), casas);
+		assertTrue(nenhum.isEmpty());
+	}
+	
+	@Test
+	public void deveCriarNoH2OIndiceDaPesquisaPorDescricao() {
+		Number indices = (Number) entityManager.getEntityManager()
+				.createNativeQuery("select count(*) from information_schema.indexes "
+						+ " where index_schema = 'FINANCAS' and index_name = 'IDX_LANCAMENTO_DESCRICAO_TRGM' ")
+				.getSingleResult();
+		
+		assertEquals(1, indices.intValue());
+	}
+	
+	@Test
+	public void deveObterOsAnosParaArquivarEDeletarOsLancamentosArquivados() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento antigo = criarEPersistirUmLancamento(usuario, 2018, 1);
+		Lancamento outroAntigo = criarEPersistirUmLancamento(usuario, 2018, 5);
+		Lancamento recente = criarEPersistirUmLancamento(usuario, 2020, 1);
+		entityManager.flush();
+		
+		List<ChaveArquivoLancamento> anos = repository.obterAnosAnterioresA(2020);
+		List<Lancamento> paraArquivar = repository.obterParaArquivamento(usuario.getId(), 2018);
+		int deletados = repository.deletarArquivados(2018, Arrays.asList(antigo.getId(), outroAntigo.getId()));
+		
+		assertEquals(Arrays.asList(new ChaveArquivoLancamento(usuario.getId(), 2018)), anos);
+		assertEquals(Arrays.asList(antigo.getId(), outroAntigo.getId()), 
+				paraArquivar.stream().map(Lancamento::getId).collect(Collectors.toList()));
+		assertEquals(2, deletados);
+		assertEquals(1, repository.count());
+		assertNotNull(entityManager.find(Lancamento.class, recente.getId()));
+	}
+	
+	private Lancamento criarEPersistirUmLancamento(Usuario usuario, String descricao) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setDescricao(descricao);
+		entityManager.persist(lancamento);
+		return lancamento;
+	}
+	
+	private Lancamento criarEPersistirUmLancamento(Usuario usuario, int ano, int mes) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
+		entityManager.persist(lancamento);
+		return lancamento;
+	}
+	
 	private Lancamento criarEPersistirUmLancamento() {
 		Lancamento lancamento = criarLancamento();
 		entityManager.persist(lancamento);
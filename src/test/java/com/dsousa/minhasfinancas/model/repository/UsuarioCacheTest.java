@@ -0,0 +1,117 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+
+// sem transação de teste: cada chamada ao repositório faz commit, que é quando o cache de segundo nível é atualizado
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UsuarioCacheTest {
+
+	@Autowired
+	UsuarioRepository repository;
+	
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	Statistics estatisticas;
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		usuario = repository.save(Usuario.builder().nome("cache").email("cache@email.com").senha("senha").build());
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		estatisticas.clear();
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		repository.deleteById(usuario.getId());
+	}
+	
+	@Test
+	public void deveServirOUsuarioPorIdDoCacheDeSegundoNivel() {
+		//action
+		repository.findById(usuario.getId());
+		long comandosAposPrimeiraLeitura = estatisticas.getPrepareStatementCount();
+		Optional<Usuario> resultado = repository.findById(usuario.getId());
+		
+		//verification
+		Assertions.assertThat(resultado).isPresent();
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(comandosAposPrimeiraLeitura);
+		Assertions.assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveServirABuscaPorEmailDoCacheDeConsultas() {
+		//action
+		repository.findByEmail("cache@email.com");
+		long comandosAposPrimeiraLeitura = estatisticas.getPrepareStatementCount();
+		Optional<Usuario> resultado = repository.findByEmail("cache@email.com");
+		
+		//verification
+		Assertions.assertThat(resultado).isPresent();
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(comandosAposPrimeiraLeitura);
+		Assertions.assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveInvalidarOsCachesQuandoOUsuarioForAlterado() {
+		//scenario
+		repository.findById(usuario.getId());
+		repository.findByEmail("cache@email.com");
+		repository.existsByEmail("novo@email.com");
+		
+		//action
+		Usuario alterado = repository.findById(usuario.getId()).get();
+		alterado.setNome("alterado");
+		alterado.setEmail("novo@email.com");
+		repository.save(alterado);
+		
+		//verification
+		Assertions.assertThat(repository.findById(usuario.getId()).get().getNome()).isEqualTo("alterado");
+		Assertions.assertThat(repository.findByEmail("cache@email.com")).isEmpty();
+		Assertions.assertThat(repository.findByEmail("novo@email.com")).isPresent();
+		Assertions.assertThat(repository.existsByEmail("novo@email.com")).isTrue();
+	}
+	
+	@Test
+	public void deveInvalidarAConsultaPorEmailQuandoUmUsuarioForCriado() {
+		//scenario
+		Assertions.assertThat(repository.existsByEmail("outro@email.com")).isFalse();
+		
+		//action
+		Usuario outro = repository.save(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+		
+		//verification
+		try {
+			Assertions.assertThat(repository.existsByEmail("outro@email.com")).isTrue();
+		} finally {
+			repository.deleteById(outro.getId());
+		}
+	}
+
+}
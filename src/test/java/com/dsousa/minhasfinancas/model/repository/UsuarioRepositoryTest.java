@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -83,6 +84,16 @@ public class UsuarioRepositoryTest {
 		Assertions.assertThat(result.isPresent()).isFalse();
 	}
 	
+	@Test
+	public void naoDevePersistirDoisUsuariosComOMesmoEmail() {
+		//scenario
+		entityManager.persist(criarUsuario());
+		
+		//action and verification
+		Assertions.assertThatThrownBy(() -> repository.saveAndFlush(criarUsuario()))
+			.isInstanceOf(DataIntegrityViolationException.class);
+	}
+	
 	public static Usuario criarUsuario() {
 		Usuario usuario = Usuario.builder()
 						 .nome("usuario")
@@ -0,0 +1,54 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.entity.VersaoUsuario;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class VersaoUsuarioRepositoryTest {
+
+	@Autowired
+	VersaoUsuarioRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveCriarAVersaoNaPrimeiraEscritaDoUsuario() {
+		//scenario
+		Usuario usuario = entityManager.persistAndFlush(UsuarioRepositoryTest.criarUsuario());
+		
+		//action
+		repository.criarOuIncrementar(usuario.getId());
+		
+		//verification
+		Assertions.assertThat(repository.obterVersao(usuario.getId())).contains(1l);
+	}
+	
+	@Test
+	public void deveIncrementarAVersaoQueOutraTransacaoAcabouDeCriar() {
+		//scenario
+		Usuario usuario = entityManager.persistAndFlush(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persistAndFlush(new VersaoUsuario(usuario.getId(), 3l));
+		
+		//action
+		repository.criarOuIncrementar(usuario.getId());
+		
+		//verification
+		Assertions.assertThat(repository.obterVersao(usuario.getId())).contains(4l);
+	}
+
+}
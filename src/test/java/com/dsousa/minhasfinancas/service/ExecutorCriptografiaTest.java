@@ -0,0 +1,82 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.dsousa.minhasfinancas.exception.ServicoIndisponivelException;
+import com.dsousa.minhasfinancas.service.impl.ExecutorCriptografia;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ExecutorCriptografiaTest {
+
+	PasswordEncoder encoder;
+	SimpleMeterRegistry registry;
+	ExecutorCriptografia criptografia;
+	
+	CountDownLatch liberar;
+	
+	@BeforeEach
+	public void setUp() {
+		liberar = new CountDownLatch(1);
+		encoder = Mockito.mock(PasswordEncoder.class);
+		Mockito.when(encoder.encode(Mockito.anyString())).thenAnswer(invocation -> {
+			liberar.await(5, TimeUnit.SECONDS);
+			return "hash:" + invocation.getArgument(0);
+		});
+		Mockito.when(encoder.matches("senha", "hash:senha")).thenReturn(true);
+		
+		registry = new SimpleMeterRegistry();
+		criptografia = new ExecutorCriptografia(encoder, registry, 1, 1);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		liberar.countDown();
+		criptografia.encerrar();
+	}
+	
+	@Test
+	public void deveCriptografarEVerificarForaDaThreadChamadora() {
+		//scenario
+		liberar.countDown();
+		
+		//action
+		String hash = criptografia.criptografar("senha").join();
+		boolean senhasBatem = criptografia.verificar("senha", hash).join();
+		
+		//verification
+		Assertions.assertEquals("hash:senha", hash);
+		Assertions.assertTrue(senhasBatem);
+		Assertions.assertEquals(1, registry.get("seguranca.criptografia.duracao").tag("operacao", "criptografar").timer().count());
+		Assertions.assertEquals(1, registry.get("seguranca.criptografia.duracao").tag("operacao", "verificar").timer().count());
+	}
+	
+	@Test
+	public void deveRecusarQuandoAFilaEstiverCheia() throws Exception {
+		//scenario: uma thread ocupada e a única vaga da fila preenchida
+		CompletableFuture<String> emExecucao = criptografia.criptografar("a");
+		while(registry.get("seguranca.criptografia.ativas").gauge().value() < 1) {
+			Thread.sleep(1);
+		}
+		CompletableFuture<String> enfileirado = criptografia.criptografar("b");
+		
+		//action and verification
+		Assertions.assertEquals(1, criptografia.tamanhoFila());
+		Assertions.assertThrows(ServicoIndisponivelException.class, () -> criptografia.criptografar("c"));
+		Assertions.assertEquals(1, registry.get("seguranca.criptografia.rejeicoes").counter().count());
+		
+		liberar.countDown();
+		Assertions.assertEquals("hash:a", emExecucao.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals("hash:b", enfileirado.get(5, TimeUnit.SECONDS));
+	}
+
+}
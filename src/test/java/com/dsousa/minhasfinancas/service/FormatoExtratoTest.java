@@ -0,0 +1,69 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+
+public class FormatoExtratoTest {
+
+	@Test
+	public void deveLerUmCsvComSeparadorPontoEVirgula() throws IOException {
+		//scenario
+		String csv = "Data;Descrição;Valor\n"
+				+ "05/01/2023;Padaria;-12,50\n"
+				+ "\n"
+				+ "06/01/2023;\"Salário; empresa\";1.234,56\n"
+				+ "data inválida;Mercado;-10,00\n";
+		List<LinhaExtrato> linhas = new ArrayList<>();
+		
+		//action
+		int invalidas = FormatoExtrato.CSV.ler(new StringReader(csv), linhas::add);
+		
+		//verification
+		Assertions.assertEquals(1, invalidas);
+		Assertions.assertEquals(2, linhas.size());
+		Assertions.assertEquals(LocalDate.of(2023, 1, 5), linhas.get(0).getData());
+		Assertions.assertEquals(new BigDecimal("-12.50"), linhas.get(0).getValor());
+		Assertions.assertEquals("Salário; empresa", linhas.get(1).getDescricao());
+		Assertions.assertEquals(new BigDecimal("1234.56"), linhas.get(1).getValor());
+	}
+	
+	@Test
+	public void deveRecusarUmCsvSemAsColunasObrigatorias() {
+		//action and verification
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> FormatoExtrato.CSV.ler(new StringReader("data,historico\n2023-01-05,Padaria\n"), linha -> {}));
+	}
+	
+	@Test
+	public void deveLerAsTransacoesDeUmOfx() throws IOException {
+		//scenario
+		String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+				+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20230105120000[-3:BRT]\n<TRNAMT>-50.00\n<FITID>1\n<MEMO>PADARIA\n</STMTTRN>\n"
+				+ "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20230110<TRNAMT>1500,00<NAME>SALARIO</NAME></STMTTRN>\n"
+				+ "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>xx<TRNAMT>-1.00<MEMO>INVALIDA</STMTTRN>\n"
+				+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+		List<LinhaExtrato> linhas = new ArrayList<>();
+		
+		//action
+		int invalidas = FormatoExtrato.OFX.ler(new StringReader(ofx), linhas::add);
+		
+		//verification
+		Assertions.assertEquals(1, invalidas);
+		Assertions.assertEquals(2, linhas.size());
+		Assertions.assertEquals("PADARIA", linhas.get(0).getDescricao());
+		Assertions.assertEquals(new BigDecimal("-50.00"), linhas.get(0).getValor());
+		Assertions.assertEquals(LocalDate.of(2023, 1, 10), linhas.get(1).getData());
+		Assertions.assertEquals("SALARIO", linhas.get(1).getDescricao());
+		Assertions.assertEquals(new BigDecimal("1500.00"), linhas.get(1).getValor());
+	}
+
+}
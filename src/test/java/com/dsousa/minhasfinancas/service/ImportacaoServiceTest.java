@@ -0,0 +1,112 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Year;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dsousa.minhasfinancas.service.impl.ImportacaoServiceImpl;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({ImportacaoServiceImpl.class, LancamentoServiceImpl.class})
+public class ImportacaoServiceTest {
+
+	@Autowired
+	ImportacaoService service;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveImportarApenasOsLancamentosQueAindaNaoExistem() throws IOException {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persist(Lancamento.builder()
+				.descricao("Padaria")
+				.ano(2023)
+				.mes(1)
+				.valor(new BigDecimal("12.50"))
+				.tipo(TipoLancamento.DESPESA)
+				.status(StatusLancamento.EFETIVADO)
+				.usuario(usuario)
+				.build());
+		entityManager.flush();
+		
+		// a padaria aparece duas vezes no extrato e só uma já está gravada
+		String csv = "data,descricao,valor\n"
+				+ "2023-01-05,PADARIA,-12.5\n"
+				+ "2023-01-20,Padaria,-12.50\n"
+				+ "2023-01-06,Salario,1500.00\n"
+				+ "2023-01-07,Estorno,0\n";
+		
+		//action
+		ResultadoImportacao resultado = service.importar(usuario.getId(), FormatoExtrato.CSV, new StringReader(csv));
+		
+		//verification
+		Assertions.assertEquals(4, resultado.getLidos());
+		Assertions.assertEquals(2, resultado.getImportados());
+		Assertions.assertEquals(1, resultado.getDuplicados());
+		Assertions.assertEquals(1, resultado.getInvalidos());
+		Assertions.assertEquals(3, repository.count());
+	}
+	
+	@Test
+	public void deveConsiderarOsLancamentosArquivadosComoJaExistentes() throws IOException {
+		//scenario
+		int ano = Year.now().getValue() - 5;
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persist(Lancamento.builder()
+				.descricao("Aluguel")
+				.ano(ano)
+				.mes(3)
+				.valor(new BigDecimal("800.00"))
+				.tipo(TipoLancamento.DESPESA)
+				.status(StatusLancamento.EFETIVADO)
+				.usuario(usuario)
+				.build());
+		entityManager.flush();
+		Assertions.assertEquals(1, lancamentoService.arquivar(usuario.getId(), ano));
+		entityManager.clear();
+		
+		String csv = "data,descricao,valor\n"
+				+ ano + "-03-10,Aluguel,-800\n"
+				+ ano + "-04-10,Aluguel,-800\n";
+		
+		//action
+		ResultadoImportacao resultado = service.importar(usuario.getId(), FormatoExtrato.CSV, new StringReader(csv));
+		
+		//verification
+		Assertions.assertEquals(1, resultado.getImportados());
+		Assertions.assertEquals(1, resultado.getDuplicados());
+		Assertions.assertEquals(1, repository.count());
+	}
+
+}
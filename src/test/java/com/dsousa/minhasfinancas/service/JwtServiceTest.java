@@ -0,0 +1,65 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.impl.JwtServiceImpl;
+
+public class JwtServiceTest {
+
+	static final String CHAVE_ASSINATURA = "YSBsZWJyZSDDqSBicmFuY2E=";
+	
+	@Test
+	public void deveVerificarUmTokenValido() {
+		//scenario
+		JwtServiceImpl service = criarService("30");
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build();
+		String token = service.gerarToken(usuario);
+		
+		//action
+		Optional<TokenVerificado> resultado = service.verificarToken(token);
+		
+		//verification
+		Assertions.assertTrue(resultado.isPresent());
+		Assertions.assertEquals("usuario@email.com", resultado.get().getLogin());
+		Assertions.assertEquals(1l, resultado.get().getIdUsuario());
+		Assertions.assertEquals("usuario", resultado.get().getNome());
+	}
+	
+	@Test
+	public void deveRejeitarUmTokenExpirado() {
+		//scenario
+		JwtServiceImpl service = criarService("-1");
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build();
+		String token = service.gerarToken(usuario);
+		
+		//action and verification
+		Assertions.assertFalse(service.verificarToken(token).isPresent());
+		Assertions.assertFalse(service.isTokenValido(token));
+	}
+	
+	@Test
+	public void deveRejeitarUmTokenAdulterado() {
+		//scenario
+		JwtServiceImpl service = criarService("30");
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build();
+		String token = service.gerarToken(usuario);
+		
+		//action and verification
+		Assertions.assertFalse(service.verificarToken(token.substring(0, token.length() - 2)).isPresent());
+		Assertions.assertFalse(service.verificarToken("token-invalido").isPresent());
+	}
+	
+	private JwtServiceImpl criarService(String expiracao) {
+		JwtServiceImpl service = new JwtServiceImpl();
+		ReflectionTestUtils.setField(service, "expiracao", expiracao);
+		ReflectionTestUtils.setField(service, "chaveAssinatura", CHAVE_ASSINATURA);
+		service.inicializar();
+		return service;
+	}
+	
+}
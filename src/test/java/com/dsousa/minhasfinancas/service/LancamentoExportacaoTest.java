@@ -0,0 +1,74 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+// um milhão de linhas e medições de heap entre coletas: fora do build padrão, roda com mvn -P memoria test
+@Tag("memoria")
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(LancamentoServiceImpl.class)
+public class LancamentoExportacaoTest {
+
+	static final int TOTAL_LANCAMENTOS = 1_000_000;
+	static final long LIMITE_CRESCIMENTO_HEAP = 64L * 1024 * 1024;
+	
+	@Autowired
+	LancamentoService service;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveExportarUmMilhaoDeLancamentosComHeapLimitado() {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.getEntityManager()
+			.createNativeQuery("insert into financas.lancamento (descricao, mes, ano, id_usuario, valor, tipo, status, data_cadastro) "
+					+ "select 'lancamento ' || x, mod(x, 12) + 1, 2000 + mod(x, 20), :idUsuario, 10, 'RECEITA', 'PENDENTE', current_date "
+					+ "from system_range(1, " + TOTAL_LANCAMENTOS + ")")
+			.setParameter("idUsuario", usuario.getId())
+			.executeUpdate();
+		
+		MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		long heapInicial = memoria.getHeapMemoryUsage().getUsed();
+		long[] exportados = {0};
+		long[] maiorCrescimento = {0};
+		
+		//action
+		service.exportar(usuario.getId(), lancamento -> {
+			exportados[0]++;
+			if(exportados[0] % 100_000 == 0) {
+				System.gc();
+				long crescimento = memoria.getHeapMemoryUsage().getUsed() - heapInicial;
+				maiorCrescimento[0] = Math.max(maiorCrescimento[0], crescimento);
+			}
+		});
+		
+		//verification
+		Assertions.assertEquals(TOTAL_LANCAMENTOS, exportados[0]);
+		Assertions.assertTrue(maiorCrescimento[0] < LIMITE_CRESCIMENTO_HEAP,
+				"Heap cresceu " + (maiorCrescimento[0] / (1024 * 1024)) + "MB durante a exportação");
+	}
+	
+}
@@ -0,0 +1,81 @@
+package com.dsousa.minhasfinancas.service;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dsousa.minhasfinancas.service.impl.ExecutorCriptografia;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.dsousa.minhasfinancas.service.impl.LimitadorTentativas;
+import com.dsousa.minhasfinancas.service.impl.UsuarioServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({LancamentoServiceImpl.class, UsuarioServiceImpl.class})
+public class LancamentoReferenciaUsuarioTest {
+
+	@Autowired
+	LancamentoService service;
+	
+	@Autowired
+	UsuarioService usuarioService;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@MockBean
+	ExecutorCriptografia criptografia;
+	
+	@MockBean
+	LimitadorTentativas limitador;
+	
+	@Test
+	public void deveSalvarUmLancamentoSemConsultarOUsuario() {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.flush();
+		entityManager.clear();
+		
+		Statistics estatisticas = entityManager.getEntityManager()
+				.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		estatisticas.clear();
+		
+		// o mesmo caminho do POST: o recurso converte o id do corpo numa referência ao usuário
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuarioService.obterReferencia(usuario.getId()));
+		
+		//action
+		service.salvar(lancamento);
+		entityManager.flush();
+		
+		//verification
+		EntityStatistics estatisticasUsuario = estatisticas.getEntityStatistics(Usuario.class.getName());
+		Assertions.assertEquals(1, estatisticas.getEntityStatistics(Lancamento.class.getName()).getInsertCount());
+		Assertions.assertEquals(0, estatisticasUsuario.getLoadCount());
+		Assertions.assertEquals(0, estatisticasUsuario.getFetchCount());
+		Assertions.assertEquals(0, estatisticas.getSecondLevelCacheHitCount());
+		Assertions.assertFalse(Hibernate.isInitialized(lancamento.getUsuario()));
+	}
+
+}
@@ -4,7 +4,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.isNotNull;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,19 +15,34 @@ import org.h2.api.DatabaseEventListener;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Example;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.ArquivoLancamento;
+import com.dsousa.minhasfinancas.model.entity.ChaveArquivoLancamento;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.entity.VersaoUsuario;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.ArquivoLancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.CursorLancamento;
+import com.dsousa.minhasfinancas.model.repository.EstadoSaldoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoProjecao;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.StatusAlteradoLancamento;
+import com.dsousa.minhasfinancas.model.repository.TotalLancamento;
+import com.dsousa.minhasfinancas.model.repository.VersaoUsuarioRepository;
 import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
 
 @ExtendWith(SpringExtension.class)
@@ -37,6 +55,15 @@ public class LancamentoServiceTest {
 	@MockBean
 	LancamentoRepository repository;
 	
+	@MockBean
+	SaldoUsuarioRepository saldoRepository;
+	
+	@MockBean
+	VersaoUsuarioRepository versaoRepository;
+	
+	@MockBean
+	ArquivoLancamentoRepository arquivoRepository;
+	
 	@Test
 	public void deveSalvarUmLancamento() {
 		//scenario
@@ -71,6 +98,38 @@ public class LancamentoServiceTest {
 		Mockito.verify(repository, Mockito.never()).save(lancamentoASalvar);
 	}
 	
+	@Test
+	public void deveSalvarUmLoteDeLancamentosComoPendentes() {
+		//scenario
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		primeiro.setStatus(StatusLancamento.EFETIVADO);
+		Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+		List<Lancamento> lote = Arrays.asList(primeiro, segundo);
+		Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+		
+		//action
+		int quantidade = service.salvarEmLote(lote);
+		
+		//verification
+		Assertions.assertEquals(2, quantidade);
+		Assertions.assertEquals(StatusLancamento.PENDENTE, primeiro.getStatus());
+		Mockito.verify(repository).inserirEmLote(lote);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+	}
+	
+	@Test
+	public void naoDeveSalvarOLoteQuandoAlgumLancamentoForInvalido() {
+		//scenario
+		Lancamento valido = LancamentoRepositoryTest.criarLancamento();
+		Lancamento invalido = new Lancamento();
+		List<Lancamento> lote = Arrays.asList(valido, invalido);
+		Mockito.doNothing().when(service).validar(valido);
+		
+		//action and verification
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.salvarEmLote(lote));
+		Mockito.verify(repository, Mockito.never()).inserirEmLote(Mockito.anyList());
+	}
+	
 	@Test
 	public void deveAtualizarUmLancamento() {
 		//scenario
@@ -89,6 +148,189 @@ public class LancamentoServiceTest {
 		
 	}
 	
+	@Test
+	public void deveAjustarOSaldoUmaUnicaVezAoEditarUmLancamentoEfetivadoSemSaldoArmazenado() {
+		//scenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		lancamento.setValor(BigDecimal.valueOf(20));
+		
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterEstadoParaSaldo(1l))
+			.thenReturn(Optional.of(new EstadoSaldoLancamento(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10))));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		// o agregado já enxerga o valor editado
+		Mockito.when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(20));
+		
+		//action
+		service.atualizar(lancamento);
+		
+		//verification
+		Mockito.verify(saldoRepository, Mockito.times(1)).adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class));
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(10));
+		Mockito.verify(saldoRepository).criarOuAdicionar(1l, BigDecimal.valueOf(20), BigDecimal.valueOf(10));
+		Mockito.verify(saldoRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+	
+	@Test
+	public void deveAtualizarParcialmenteApenasOsCamposInformados() {
+		//scenario
+		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
+		lancamentoSalvo.setId(1l);
+		lancamentoSalvo.setVersao(3l);
+		lancamentoSalvo.setUsuario(Usuario.builder().id(1l).build());
+		lancamentoSalvo.setStatus(StatusLancamento.EFETIVADO);
+		Mockito.when(repository.obterDoUsuario(1l, 1l)).thenReturn(Optional.of(lancamentoSalvo));
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		Lancamento alteracoes = Lancamento.builder().valor(BigDecimal.valueOf(25)).versao(3l).build();
+		
+		//action
+		Optional<Lancamento> resultado = service.atualizarParcialmente(1l, 1l, alteracoes);
+		
+		//verification
+		Assertions.assertTrue(resultado.isPresent());
+		Assertions.assertEquals(BigDecimal.valueOf(25), resultado.get().getValor());
+		Assertions.assertEquals("lancamento qualquer", resultado.get().getDescricao());
+		Assertions.assertEquals(TipoLancamento.RECEITA, resultado.get().getTipo());
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(15));
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+		Mockito.verify(repository, Mockito.never()).obterEstadoParaSaldo(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveAtualizarParcialmenteUmLancamentoComVersaoDesatualizada() {
+		//scenario
+		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
+		lancamentoSalvo.setId(1l);
+		lancamentoSalvo.setVersao(3l);
+		lancamentoSalvo.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.obterDoUsuario(1l, 1l)).thenReturn(Optional.of(lancamentoSalvo));
+		
+		Lancamento alteracoes = Lancamento.builder().descricao("outra descricao").versao(2l).build();
+		
+		//action and verification
+		Assertions.assertThrows(
+				ObjectOptimisticLockingFailureException.class,
+				() -> { service.atualizarParcialmente(1l, 1l, alteracoes); }
+		);
+		
+		Assertions.assertEquals("lancamento qualquer", lancamentoSalvo.getDescricao());
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveRetornarVazioAoAtualizarParcialmenteUmLancamentoInexistente() {
+		//scenario
+		Mockito.when(repository.obterDoUsuario(1l, 1l)).thenReturn(Optional.empty());
+		
+		//action
+		Optional<Lancamento> resultado = service.atualizarParcialmente(1l, 1l, new Lancamento());
+		
+		//verification
+		Assertions.assertFalse(resultado.isPresent());
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveTransferirOLancamentoParaOutroUsuarioAoAtualizarParcialmente() {
+		//scenario
+		Lancamento alteracoes = Lancamento.builder().usuario(Usuario.builder().id(5l).build()).versao(3l).build();
+		
+		//action and verification
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.atualizarParcialmente(1l, 1l, alteracoes));
+		Mockito.verify(repository, Mockito.never()).obterDoUsuario(Mockito.anyLong(), Mockito.anyLong());
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveDeletarUmLancamentoDoUsuarioSemCarregaLo() {
+		//scenario
+		EstadoSaldoLancamento estado = new EstadoSaldoLancamento(1l, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10));
+		Mockito.when(repository.deletarDoUsuario(2l, 1l)).thenReturn(Optional.of(estado));
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		//action
+		boolean deletado = service.deletar(2l, 1l);
+		
+		//verification
+		Assertions.assertTrue(deletado);
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(10));
+		Mockito.verify(versaoRepository).incrementar(1l);
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveAlterarSaldoAoDeletarUmLancamentoInexistenteParaOUsuario() {
+		//scenario
+		Mockito.when(repository.deletarDoUsuario(2l, 1l)).thenReturn(Optional.empty());
+		
+		//action
+		boolean deletado = service.deletar(2l, 1l);
+		
+		//verification
+		Assertions.assertFalse(deletado);
+		Mockito.verify(saldoRepository, Mockito.never()).adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class));
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveAtualizarOStatusDeUmLancamentoDoUsuarioSemCarregaLo() {
+		//scenario
+		LancamentoProjecao lancamento = new LancamentoProjecao(2l, "descricao", 1, 2020, BigDecimal.valueOf(10), 1l,
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1l);
+		Mockito.when(repository.atualizarStatusDoUsuario(2l, 1l, StatusLancamento.EFETIVADO))
+			.thenReturn(Optional.of(new StatusAlteradoLancamento(lancamento, StatusLancamento.PENDENTE)));
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		//action
+		Optional<LancamentoProjecao> atualizado = service.atualizarStatus(2l, 1l, StatusLancamento.EFETIVADO);
+		
+		//verification
+		Assertions.assertSame(lancamento, atualizado.get());
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(10));
+		Mockito.verify(versaoRepository).incrementar(1l);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveDevolverOLancamentoSemAlterarSaldoNemVersaoQuandoOStatusNaoMudar() {
+		//scenario
+		LancamentoProjecao lancamento = new LancamentoProjecao(2l, "descricao", 1, 2020, BigDecimal.valueOf(10), 1l,
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1l);
+		Mockito.when(repository.atualizarStatusDoUsuario(2l, 1l, StatusLancamento.EFETIVADO)).thenReturn(Optional.empty());
+		Mockito.when(repository.obterProjecaoPorId(2l)).thenReturn(Optional.of(lancamento));
+		
+		//action
+		Optional<LancamentoProjecao> atualizado = service.atualizarStatus(2l, 1l, StatusLancamento.EFETIVADO);
+		
+		//verification
+		Assertions.assertSame(lancamento, atualizado.get());
+		Mockito.verify(saldoRepository, Mockito.never()).adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class));
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveDevolverOLancamentoDeOutroUsuarioAoAtualizarOStatus() {
+		//scenario
+		LancamentoProjecao lancamento = new LancamentoProjecao(2l, "descricao", 1, 2020, BigDecimal.valueOf(10), 5l,
+				TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 0l);
+		Mockito.when(repository.atualizarStatusDoUsuario(2l, 1l, StatusLancamento.EFETIVADO)).thenReturn(Optional.empty());
+		Mockito.when(repository.obterProjecaoPorId(2l)).thenReturn(Optional.of(lancamento));
+		
+		//action
+		Optional<LancamentoProjecao> atualizado = service.atualizarStatus(2l, 1l, StatusLancamento.EFETIVADO);
+		
+		//verification
+		Assertions.assertFalse(atualizado.isPresent());
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+	}
+	
 	@Test
 	public void deveLancarErroAoTentarAtualizarUmLancamentoQueAindaNaoFoiSalvo() {
 		//Scenario
@@ -117,6 +359,60 @@ public class LancamentoServiceTest {
 		Mockito.verify(repository).delete(lancamento);
 	}
 	
+	@Test
+	public void deveSomarAoSaldoQuandoUmaReceitaForEfetivada() {
+		//scenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterEstadoParaSaldo(1l))
+			.thenReturn(Optional.of(new EstadoSaldoLancamento(1l, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(10))));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		//action
+		service.atualizar(lancamento);
+		
+		//verification
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(10));
+		Mockito.verify(saldoRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+	
+	@Test
+	public void deveDevolverAoSaldoQuandoUmaDespesaEfetivadaForDeletada() {
+		//scenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		
+		Mockito.when(repository.obterEstadoParaSaldo(1l))
+			.thenReturn(Optional.of(new EstadoSaldoLancamento(1l, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10))));
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		//action
+		service.deletar(lancamento);
+		
+		//verification
+		Mockito.verify(repository).delete(lancamento);
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(10));
+	}
+	
+	@Test
+	public void deveObterOSaldoArmazenadoSemSomarOsLancamentos() {
+		//scenario
+		Mockito.when(saldoRepository.findById(1l)).thenReturn(Optional.of(new SaldoUsuario(1l, BigDecimal.valueOf(150))));
+		
+		//action
+		BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+		
+		//verification
+		Assertions.assertEquals(BigDecimal.valueOf(150), saldo);
+		Mockito.verify(repository, Mockito.never())
+			.obterSaldoPorTipoLancamentoEUsuarioEStatus(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
 	@Test
 	public void deveLancarErroAoTentarDeletarUmLancamentoQueAindaNaoFoiSalvo() {
 		//Scenario
@@ -152,6 +448,224 @@ public class LancamentoServiceTest {
 			);
 	}
 	
+	@Test
+	public void deveRetornarOCursorDaProximaPaginaQuandoHouverMaisRegistros() {
+		//scenario
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		primeiro.setId(1l);
+		Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+		segundo.setId(2l);
+		
+		Mockito.when(repository.buscarPagina(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.eq(2)))
+			.thenReturn(Arrays.asList(projetar(primeiro), projetar(segundo)));
+		
+		//action
+		Pagina<LancamentoProjecao> pagina = service.buscarPagina(new Lancamento(), null, 1);
+		
+		//verification
+		Assertions.assertEquals(1, pagina.getItens().size());
+		Assertions.assertNotNull(pagina.getProximaPagina());
+		CursorLancamento cursor = CursorLancamento.decodificar(pagina.getProximaPagina());
+		Assertions.assertEquals(primeiro.getId(), cursor.getId());
+		Assertions.assertEquals(primeiro.getAno(), cursor.getAno());
+		Assertions.assertEquals(primeiro.getMes(), cursor.getMes());
+	}
+	
+	@Test
+	public void naoDeveRetornarCursorNaUltimaPagina() {
+		//scenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		
+		Mockito.when(repository.buscarPagina(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.eq(3)))
+			.thenReturn(Arrays.asList(projetar(lancamento)));
+		
+		//action
+		Pagina<LancamentoProjecao> pagina = service.buscarPagina(new Lancamento(), null, 2);
+		
+		//verification
+		Assertions.assertEquals(1, pagina.getItens().size());
+		Assertions.assertNull(pagina.getProximaPagina());
+	}
+	
+	@Test
+	public void deveAgruparOsTotaisEmResumosMensais() {
+		//scenario
+		Mockito.when(repository.obterTotaisPorMesNoAno(1l, 2020)).thenReturn(Arrays.asList(
+				new TotalLancamento(2020, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(30), 2l),
+				new TotalLancamento(2020, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100), 1l),
+				new TotalLancamento(2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(50), 1l),
+				new TotalLancamento(2020, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10), 1l)));
+		
+		//action
+		List<ResumoMensal> resumo = service.obterResumoMensal(1l, 2020);
+		
+		//verification
+		Assertions.assertEquals(2, resumo.size());
+		Assertions.assertEquals(BigDecimal.valueOf(100), resumo.get(0).getReceitas());
+		Assertions.assertEquals(BigDecimal.valueOf(30), resumo.get(0).getDespesas());
+		Assertions.assertEquals(BigDecimal.valueOf(70), resumo.get(0).getSaldo());
+		Assertions.assertEquals(3, resumo.get(0).getTotais().size());
+		Assertions.assertEquals(BigDecimal.valueOf(-10), resumo.get(1).getSaldo());
+	}
+	
+	@Test
+	public void deveSomarAosResumosOsTotaisArquivados() {
+		//scenario
+		Mockito.when(repository.obterTotaisPorMes(1l)).thenReturn(Arrays.asList(
+				new TotalLancamento(2020, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100), 1l)));
+		Mockito.when(arquivoRepository.obterTotaisPorMes(1l)).thenReturn(Arrays.asList(
+				new TotalLancamento(2019, 12, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(40), 2l),
+				new TotalLancamento(2020, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(20), 1l)));
+		
+		//action
+		List<ResumoMensal> resumo = service.obterResumoMensal(1l, null);
+		
+		//verification
+		Assertions.assertEquals(2, resumo.size());
+		Assertions.assertEquals(2019, resumo.get(0).getAno());
+		Assertions.assertEquals(BigDecimal.valueOf(-40), resumo.get(0).getSaldo());
+		Assertions.assertEquals(1, resumo.get(1).getTotais().size());
+		Assertions.assertEquals(BigDecimal.valueOf(120), resumo.get(1).getReceitas());
+		Assertions.assertEquals(2l, resumo.get(1).getTotais().get(0).getQuantidade());
+	}
+	
+	@Test
+	public void deveSomarAoSaldoOsTotaisArquivados() {
+		//scenario
+		Mockito.when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(100));
+		Mockito.when(arquivoRepository.obterSaldoPorTipoEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(50));
+		Mockito.when(arquivoRepository.obterSaldoPorTipoEStatus(1l, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(30));
+		
+		//action
+		BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+		
+		//verification
+		Assertions.assertEquals(BigDecimal.valueOf(120), saldo);
+	}
+	
+	@Test
+	public void deveArquivarUmAnoFechadoELerOsLancamentosDoArquivo() {
+		//scenario
+		int ano = Year.now().getValue() - 5;
+		Lancamento receita = criarLancamentoArquivavel(2l, ano, 3, TipoLancamento.RECEITA, BigDecimal.valueOf(100));
+		Lancamento despesa = criarLancamentoArquivavel(1l, ano, 1, TipoLancamento.DESPESA, BigDecimal.valueOf(25.5));
+		Mockito.when(repository.obterParaArquivamento(1l, ano)).thenReturn(Arrays.asList(receita, despesa));
+		
+		//action
+		int arquivados = service.arquivar(1l, ano);
+		
+		//verification
+		Assertions.assertEquals(2, arquivados);
+		ArgumentCaptor<ArquivoLancamento> captor = ArgumentCaptor.forClass(ArquivoLancamento.class);
+		Mockito.verify(arquivoRepository).save(captor.capture());
+		ArquivoLancamento arquivo = captor.getValue();
+		Assertions.assertEquals(2, arquivo.getQuantidade());
+		Assertions.assertEquals(2, arquivo.getTotais().size());
+		Mockito.verify(repository).deletarArquivados(ano, Arrays.asList(2l, 1l));
+		Mockito.verify(versaoRepository).incrementar(1l);
+		
+		//scenario
+		Mockito.when(arquivoRepository.findById(new ChaveArquivoLancamento(1l, ano))).thenReturn(Optional.of(arquivo));
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		filtro.setAno(ano);
+		
+		//action
+		List<LancamentoProjecao> lancamentos = service.listar(filtro);
+		
+		//verification
+		Assertions.assertEquals(2, lancamentos.size());
+		Assertions.assertEquals(1l, lancamentos.get(0).getId());
+		Assertions.assertEquals(0, BigDecimal.valueOf(25.5).compareTo(lancamentos.get(0).getValor()));
+		Assertions.assertEquals(TipoLancamento.DESPESA, lancamentos.get(0).getTipo());
+		Assertions.assertEquals(1l, lancamentos.get(0).getIdUsuario());
+		Assertions.assertEquals(2l, lancamentos.get(1).getId());
+		Assertions.assertEquals("lancamento 2", lancamentos.get(1).getDescricao());
+	}
+	
+	@Test
+	public void naoDeveArquivarUmAnoRecente() {
+		//scenario
+		int anoAtual = Year.now().getValue();
+		
+		//action
+		Assertions.assertThrows(
+				RegraNegocioException.class,
+                () -> { service.arquivar(1l, anoAtual); }
+        );
+		
+		//verification
+		Mockito.verify(repository, Mockito.never()).obterParaArquivamento(Mockito.anyLong(), Mockito.anyInt());
+	}
+	
+	@Test
+	public void naoDeveConsultarOArquivoAoListarUmAnoRecente() {
+		//scenario
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		filtro.setAno(Year.now().getValue());
+		
+		//action
+		service.listar(filtro);
+		service.buscarPagina(filtro, null, 10);
+		
+		//verification
+		Mockito.verifyNoInteractions(arquivoRepository);
+	}
+	
+	@Test
+	public void deveReaproveitarOArquivoDescompactadoEnquantoAVersaoDoUsuarioNaoMudar() {
+		//scenario
+		int ano = Year.now().getValue() - 6;
+		arquivar(2l, ano, criarLancamentoArquivavel(10l, ano, 1, TipoLancamento.RECEITA, BigDecimal.TEN));
+		Mockito.when(versaoRepository.obterVersao(2l)).thenReturn(Optional.of(5l));
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(2l).build());
+		filtro.setAno(ano);
+		
+		//action
+		service.listar(filtro);
+		service.listar(filtro);
+		
+		//verification
+		Mockito.verify(arquivoRepository, Mockito.times(1)).findById(new ChaveArquivoLancamento(2l, ano));
+		
+		//scenario
+		Mockito.when(versaoRepository.obterVersao(2l)).thenReturn(Optional.of(6l));
+		
+		//action
+		List<LancamentoProjecao> lancamentos = service.listar(filtro);
+		
+		//verification
+		Mockito.verify(arquivoRepository, Mockito.times(2)).findById(new ChaveArquivoLancamento(2l, ano));
+		Assertions.assertEquals(1, lancamentos.size());
+	}
+	
+	@Test
+	public void deveObterUmLancamentoArquivadoPeloId() {
+		//scenario
+		int ano = Year.now().getValue() - 7;
+		arquivar(3l, ano, 
+				criarLancamentoArquivavel(20l, ano, 1, TipoLancamento.RECEITA, BigDecimal.TEN),
+				criarLancamentoArquivavel(21l, ano, 2, TipoLancamento.DESPESA, BigDecimal.ONE));
+		Mockito.when(arquivoRepository.obterAnos(3l)).thenReturn(Arrays.asList(ano));
+		
+		//action
+		Optional<LancamentoProjecao> encontrado = service.obterArquivadoPorId(21l, 3l);
+		Optional<LancamentoProjecao> inexistente = service.obterArquivadoPorId(22l, 3l);
+		
+		//verification
+		Assertions.assertTrue(encontrado.isPresent());
+		Assertions.assertEquals("lancamento 21", encontrado.get().getDescricao());
+		Assertions.assertEquals(3l, encontrado.get().getIdUsuario());
+		Assertions.assertEquals(TipoLancamento.DESPESA, encontrado.get().getTipo());
+		Assertions.assertFalse(inexistente.isPresent());
+	}
+	
 	@Test
 	public void deveAtualizarOStatusDeUmLancamento() {
 		//scenario
@@ -170,6 +684,75 @@ public class LancamentoServiceTest {
 		Mockito.verify(service).atualizar(lancamento);
 	}
 	
+	@Test
+	public void deveAjustarOSaldoAoEfetivarLancamentosEmLote() {
+		//scenario
+		List<Long> ids = Arrays.asList(1l, 2l, 3l);
+		Mockito.when(repository.atualizarStatus(1l, ids, StatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+				new EstadoSaldoLancamento(1l, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(60)),
+				new EstadoSaldoLancamento(1l, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(40)),
+				new EstadoSaldoLancamento(1l, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, BigDecimal.valueOf(30))));
+		Mockito.when(saldoRepository.adicionar(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		
+		//action
+		int atualizados = service.atualizarStatusEmLote(1l, ids, StatusLancamento.EFETIVADO);
+		
+		//verification
+		Assertions.assertEquals(3, atualizados);
+		Mockito.verify(saldoRepository).adicionar(1l, BigDecimal.valueOf(70));
+	}
+	
+	@Test
+	public void deveCriarAVersaoDoUsuarioNaPrimeiraEscrita() {
+		//scenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(versaoRepository.incrementar(1l)).thenReturn(0);
+		
+		//action
+		service.salvar(lancamento);
+		
+		//verification
+		Mockito.verify(versaoRepository).criarOuIncrementar(1l);
+		Mockito.verify(versaoRepository, Mockito.never()).save(Mockito.any(VersaoUsuario.class));
+	}
+	
+	@Test
+	public void deveIncrementarAVersaoDosUsuariosDoLote() {
+		//scenario
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		primeiro.setUsuario(Usuario.builder().id(1l).build());
+		Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+		segundo.setUsuario(Usuario.builder().id(1l).build());
+		Lancamento terceiro = LancamentoRepositoryTest.criarLancamento();
+		terceiro.setUsuario(Usuario.builder().id(2l).build());
+		Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+		Mockito.when(versaoRepository.incrementar(Mockito.anyLong())).thenReturn(1);
+		
+		//action
+		service.salvarEmLote(Arrays.asList(primeiro, segundo, terceiro));
+		
+		//verification
+		Mockito.verify(versaoRepository).incrementar(1l);
+		Mockito.verify(versaoRepository).incrementar(2l);
+		Mockito.verify(versaoRepository, Mockito.never()).save(Mockito.any(VersaoUsuario.class));
+	}
+	
+	@Test
+	public void naoDeveAlterarAVersaoQuandoNenhumLancamentoMudarDeStatus() {
+		//scenario
+		List<Long> ids = Arrays.asList(1l, 2l);
+		Mockito.when(repository.atualizarStatus(1l, ids, StatusLancamento.EFETIVADO)).thenReturn(Collections.emptyList());
+		
+		//action
+		service.atualizarStatusEmLote(1l, ids, StatusLancamento.EFETIVADO);
+		
+		//verification
+		Mockito.verify(versaoRepository, Mockito.never()).incrementar(Mockito.anyLong());
+	}
+	
 	@Test
 	public void deveObterUmLancamentoPorID() {
 		//scenario
@@ -361,5 +944,24 @@ public class LancamentoServiceTest {
 		
 	}
 	
+	private Lancamento criarLancamentoArquivavel(Long id, Integer ano, Integer mes, TipoLancamento tipo, BigDecimal valor) {
+		return Lancamento.builder().id(id).descricao("lancamento " + id).ano(ano).mes(mes).tipo(tipo).valor(valor)
+				.status(StatusLancamento.EFETIVADO).dataCadastro(LocalDate.now()).versao(0l).build();
+	}
+	
+	// arquiva os lançamentos pelo serviço e devolve o arquivo gravado a partir de então
+	private void arquivar(Long idUsuario, int ano, Lancamento... lancamentos) {
+		Mockito.when(repository.obterParaArquivamento(idUsuario, ano)).thenReturn(Arrays.asList(lancamentos));
+		service.arquivar(idUsuario, ano);
+		
+		ArgumentCaptor<ArquivoLancamento> captor = ArgumentCaptor.forClass(ArquivoLancamento.class);
+		Mockito.verify(arquivoRepository).save(captor.capture());
+		Mockito.when(arquivoRepository.findById(new ChaveArquivoLancamento(idUsuario, ano))).thenReturn(Optional.of(captor.getValue()));
+		Mockito.clearInvocations(arquivoRepository);
+	}
 	
+	private LancamentoProjecao projetar(Lancamento lancamento) {
+		return new LancamentoProjecao(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(), lancamento.getAno(),
+				lancamento.getValor(), null, lancamento.getTipo(), lancamento.getStatus(), lancamento.getVersao());
+	}
 }
@@ -0,0 +1,174 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dsousa.minhasfinancas.exception.TentativasExcedidasException;
+import com.dsousa.minhasfinancas.service.impl.LimitadorTentativas;
+
+public class LimitadorTentativasTest {
+
+	static final int THREADS = 16;
+	
+	ExecutorService executor;
+	
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void deveRecusarTentativasAlemDoLimitePorEmailEEndereco() {
+		//scenario
+		LimitadorTentativas limitador = new LimitadorTentativas(3, 1000, 1000, 60, 1000);
+		
+		//action
+		limitador.registrar("usuario@email.com", "10.0.0.1");
+		limitador.registrar("USUARIO@email.com ", "10.0.0.1");
+		limitador.registrar("usuario@email.com", "10.0.0.1");
+		
+		//verification
+		TentativasExcedidasException thrown = Assertions.assertThrows(
+				TentativasExcedidasException.class,
+				() -> limitador.registrar("usuario@email.com", "10.0.0.1"));
+		Assertions.assertTrue(thrown.getSegundosParaNovaTentativa() >= 1);
+		Assertions.assertTrue(thrown.getSegundosParaNovaTentativa() <= 60);
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("outro@email.com", "10.0.0.1"));
+		// as tentativas de outro endereço não bloqueiam o login do usuário
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("usuario@email.com", "10.0.0.2"));
+	}
+	
+	@Test
+	public void naoDeveContarNoEnderecoATentativaRecusadaPeloEmail() {
+		//scenario
+		LimitadorTentativas limitador = new LimitadorTentativas(1, 1000, 3, 60, 1000);
+		limitador.registrar("a@email.com", "10.0.0.1");
+		
+		//action
+		for(int i = 0; i < 5; i++) {
+			Assertions.assertThrows(TentativasExcedidasException.class, () -> limitador.registrar("a@email.com", "10.0.0.1"));
+		}
+		
+		//verification
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("b@email.com", "10.0.0.1"));
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("c@email.com", "10.0.0.1"));
+	}
+	
+	@Test
+	public void deveRecusarTentativasDeVariosEnderecosContraOMesmoEmail() {
+		//scenario
+		LimitadorTentativas limitador = new LimitadorTentativas(3, 5, 1000, 60, 1000);
+		for(int i = 1; i <= 5; i++) {
+			limitador.registrar("usuario@email.com", "10.0.0." + i);
+		}
+		
+		//action and verification
+		for(int i = 6; i <= 10; i++) {
+			String endereco = "10.0.0." + i;
+			Assertions.assertThrows(TentativasExcedidasException.class, () -> limitador.registrar("Usuario@email.com", endereco));
+		}
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("outro@email.com", "10.0.0.6"));
+	}
+	
+	@Test
+	public void deveRecusarTentativasAlemDoLimitePorEndereco() {
+		//scenario
+		LimitadorTentativas limitador = new LimitadorTentativas(1000, 1000, 2, 60, 1000);
+		limitador.registrar("a@email.com", "10.0.0.1");
+		limitador.registrar("b@email.com", "10.0.0.1");
+		
+		//action and verification
+		Assertions.assertThrows(TentativasExcedidasException.class, () -> limitador.registrar("c@email.com", "10.0.0.1"));
+		Assertions.assertDoesNotThrow(() -> limitador.registrar("c@email.com", "10.0.0.2"));
+	}
+	
+	@Test
+	public void deveAdmitirExatamenteOLimiteSobConcorrencia() throws Exception {
+		//scenario
+		int limite = 500;
+		LimitadorTentativas limitador = new LimitadorTentativas(limite, Integer.MAX_VALUE, Integer.MAX_VALUE, 60, 1000);
+		
+		//action
+		int admitidas = disparar(THREADS * 1000, i -> limitador.registrar("alvo@email.com", "10.0.0.1"));
+		
+		//verification
+		Assertions.assertEquals(limite, admitidas);
+	}
+	
+	@Test
+	public void deveContarCadaChaveIndependentementeSobConcorrencia() throws Exception {
+		//scenario
+		int limite = 20;
+		int emails = 200;
+		LimitadorTentativas limitador = new LimitadorTentativas(limite, Integer.MAX_VALUE, Integer.MAX_VALUE, 60, 10000);
+		
+		//action: cada email recebe o dobro do limite, intercalado entre as threads
+		int admitidas = disparar(emails * limite * 2, i -> limitador.registrar("usuario" + (i % emails) + "@email.com", null));
+		
+		//verification
+		Assertions.assertEquals(emails * limite, admitidas);
+	}
+	
+	@Test
+	public void deveManterAQuantidadeDeChavesLimitada() throws Exception {
+		//scenario
+		LimitadorTentativas limitador = new LimitadorTentativas(10, 10, 10, 60, 100);
+		
+		//action
+		disparar(10000, i -> limitador.registrar("usuario" + i + "@email.com", "10.0." + (i / 250) + "." + (i % 250)));
+		
+		//verification
+		Assertions.assertTrue(limitador.chavesAtivas() <= 300);
+	}
+	
+	private int disparar(int tentativas, Tentativa tentativa) throws Exception {
+		AtomicInteger proxima = new AtomicInteger();
+		AtomicInteger admitidas = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		
+		List<Future<?>> futuros = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			futuros.add(executor.submit((Callable<Void>) () -> {
+				largada.await();
+				int i;
+				while((i = proxima.getAndIncrement()) < tentativas) {
+					try {
+						tentativa.executar(i);
+						admitidas.incrementAndGet();
+					} catch (TentativasExcedidasException e) {
+						// esperado após o limite
+					}
+				}
+				return null;
+			}));
+		}
+		
+		largada.countDown();
+		for(Future<?> futuro : futuros) {
+			futuro.get(30, TimeUnit.SECONDS);
+		}
+		return admitidas.get();
+	}
+	
+	interface Tentativa {
+		void executar(int indice);
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.time.Year;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.service.impl.ParticionamentoLancamento;
+
+public class ParticionamentoLancamentoTest {
+
+	@Test
+	public void deveCriarAsParticoesDoAnoAtualEDosAnosFuturos() {
+		//scenario
+		LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+		int anoAtual = Year.now().getValue();
+		Mockito.when(repository.criarParticoes(anoAtual, anoAtual + 2)).thenReturn(1);
+		
+		//action
+		int criadas = new ParticionamentoLancamento(repository, 2).criarParticoesFuturas();
+		
+		//verification
+		Assertions.assertEquals(1, criadas);
+		Mockito.verify(repository).criarParticoes(anoAtual, anoAtual + 2);
+	}
+
+}
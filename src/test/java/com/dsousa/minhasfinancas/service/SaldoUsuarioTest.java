@@ -0,0 +1,109 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(LancamentoServiceImpl.class)
+public class SaldoUsuarioTest {
+
+	@Autowired
+	LancamentoService service;
+	
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveCriarOSaldoComOValorEditadoQuandoAindaNaoHouverSaldoArmazenado() {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamentoEfetivado(usuario);
+		
+		//action
+		service.atualizar(editarValor(lancamento, usuario, BigDecimal.valueOf(20)));
+		
+		//verification
+		Assertions.assertEquals(0, BigDecimal.valueOf(20).compareTo(obterSaldoArmazenado(usuario)));
+	}
+	
+	@Test
+	public void deveSomarAVariacaoAoSaldoJaArmazenado() {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = criarEPersistirUmLancamentoEfetivado(usuario);
+		entityManager.persistAndFlush(new SaldoUsuario(usuario.getId(), BigDecimal.valueOf(10)));
+		entityManager.clear();
+		
+		//action
+		service.atualizar(editarValor(lancamento, usuario, BigDecimal.valueOf(20)));
+		
+		//verification
+		Assertions.assertEquals(0, BigDecimal.valueOf(20).compareTo(obterSaldoArmazenado(usuario)));
+	}
+	
+	@Test
+	public void deveSomarAVariacaoQuandoOSaldoForCriadoPorOutraTransacao() {
+		//scenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persistAndFlush(new SaldoUsuario(usuario.getId(), BigDecimal.valueOf(10)));
+		entityManager.clear();
+		
+		//action
+		saldoRepository.criarOuAdicionar(usuario.getId(), BigDecimal.valueOf(50), BigDecimal.valueOf(5));
+		
+		//verification
+		Assertions.assertEquals(0, BigDecimal.valueOf(15).compareTo(obterSaldoArmazenado(usuario)));
+	}
+	
+	private Lancamento criarEPersistirUmLancamentoEfetivado(Usuario usuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		entityManager.persistAndFlush(lancamento);
+		entityManager.clear();
+		return lancamento;
+	}
+	
+	private Lancamento editarValor(Lancamento lancamento, Usuario usuario, BigDecimal valor) {
+		Lancamento edicao = LancamentoRepositoryTest.criarLancamento();
+		edicao.setId(lancamento.getId());
+		edicao.setVersao(lancamento.getVersao());
+		edicao.setUsuario(usuario);
+		edicao.setStatus(StatusLancamento.EFETIVADO);
+		edicao.setValor(valor);
+		return edicao;
+	}
+	
+	private BigDecimal obterSaldoArmazenado(Usuario usuario) {
+		entityManager.flush();
+		entityManager.clear();
+		return saldoRepository.findById(usuario.getId()).get().getSaldo();
+	}
+
+}
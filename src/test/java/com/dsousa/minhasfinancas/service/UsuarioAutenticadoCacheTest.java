@@ -0,0 +1,66 @@
+package com.dsousa.minhasfinancas.service;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.impl.UsuarioAutenticadoCache;
+
+public class UsuarioAutenticadoCacheTest {
+
+	UsuarioAutenticadoCache cache;
+
+	int carregamentos;
+
+	@BeforeEach
+	public void setUp() {
+		cache = new UsuarioAutenticadoCache(Mockito.mock(EntityManagerFactory.class), 100, 60);
+		carregamentos = 0;
+	}
+
+	@Test
+	public void deveCarregarOUsuarioApenasUmaVez() {
+		//action
+		cache.obter("usuario@email.com", this::carregar);
+		cache.obter("usuario@email.com", this::carregar);
+		cache.obter("usuario@email.com", this::carregar);
+
+		//verification
+		Assertions.assertEquals(1, carregamentos);
+		Assertions.assertEquals(2, cache.estatisticas().hitCount());
+		Assertions.assertEquals(1, cache.estatisticas().missCount());
+	}
+
+	@Test
+	public void deveInvalidarOUsuarioQuandoEleForAlterado() {
+		//scenario
+		cache.obter("antigo@email.com", this::carregar);
+
+		EntityPersister persister = Mockito.mock(EntityPersister.class);
+		Mockito.when(persister.getPropertyNames()).thenReturn(new String[] {"email", "nome", "senha"});
+		Usuario usuario = Usuario.builder().id(1l).email("novo@email.com").nome("usuario").build();
+		Object[] estadoAnterior = new Object[] {"antigo@email.com", "usuario", "senha"};
+		PostUpdateEvent event = new PostUpdateEvent(usuario, 1l, null, estadoAnterior, null, persister, null);
+
+		//action
+		cache.onPostUpdate(event);
+		cache.obter("antigo@email.com", this::carregar);
+
+		//verification
+		Assertions.assertEquals(2, carregamentos);
+	}
+
+	private UserDetails carregar(String email) {
+		carregamentos++;
+		return User.builder().username(email).password("senha").roles("USER").build();
+	}
+
+}
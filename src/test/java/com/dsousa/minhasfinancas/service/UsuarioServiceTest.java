@@ -1,6 +1,8 @@
 package com.dsousa.minhasfinancas.service;
 
+import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -8,13 +10,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.exception.TentativasExcedidasException;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.impl.ExecutorCriptografia;
+import com.dsousa.minhasfinancas.service.impl.LimitadorTentativas;
 import com.dsousa.minhasfinancas.service.impl.UsuarioServiceImpl;
 
 @ExtendWith(SpringExtension.class)
@@ -27,6 +33,12 @@ public class UsuarioServiceTest {
 	@MockBean
 	UsuarioRepository repository;
 	
+	@MockBean
+	ExecutorCriptografia criptografia;
+	
+	@MockBean
+	LimitadorTentativas limitador;
+	
 	
 	@Test
 	public void deveValidarEmail() {
@@ -59,6 +71,7 @@ public class UsuarioServiceTest {
 		
 		Usuario usuario = Usuario.builder().email(email).senha(senha).id(1l).build();
 		Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuario));
+		Mockito.when(criptografia.verificar(senha, senha)).thenReturn(CompletableFuture.completedFuture(true));
 		
 		//action
 		Usuario result = service.autenticar(email, senha);
@@ -88,6 +101,7 @@ public class UsuarioServiceTest {
 		String senha = "senha";
 		Usuario usuario = Usuario.builder().email(email).senha(senha).id(1l).build();
 		Mockito.when(repository.findByEmail(Mockito.anyString())).thenReturn(Optional.of(usuario));
+		Mockito.when(criptografia.verificar("123", senha)).thenReturn(CompletableFuture.completedFuture(false));
 		
 		//action and Verification
 		ErroAutenticacao thrown = Assertions.assertThrows(
@@ -98,6 +112,21 @@ public class UsuarioServiceTest {
 		Assertions.assertEquals(expected, thrown.getMessage());
 	}
 	
+	@Test
+	public void naoDeveConsultarOUsuarioNemCalcularHashQuandoAsTentativasForemExcedidas() {
+		//scenario
+		Mockito.doThrow(new TentativasExcedidasException("excedidas", 60)).when(limitador).registrar(Mockito.anyString(), Mockito.any());
+		
+		//action and verification
+		Assertions.assertThrows(
+				TentativasExcedidasException.class,
+                () -> { service.autenticar("usuario@email.com", "senha"); }
+        );
+		
+		Mockito.verify(repository, Mockito.never()).findByEmail(Mockito.anyString());
+		Mockito.verify(criptografia, Mockito.never()).verificar(Mockito.anyString(), Mockito.anyString());
+	}
+	
 	@Test
 	public void deveSalvarUmUsuario() {
 		//scenario
@@ -110,6 +139,7 @@ public class UsuarioServiceTest {
 				 .build();
 		
 		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
+		Mockito.when(criptografia.criptografar(Mockito.any())).thenReturn(CompletableFuture.completedFuture("senhaCriptografada"));
 		
 		//action
 		Usuario usuarioSalvo = service.salvarUsuario(new Usuario());
@@ -123,6 +153,20 @@ public class UsuarioServiceTest {
 		
 	}
 	
+	@Test
+	public void deveObterUmaReferenciaAoUsuarioSemConsultarABase() {
+		//scenario
+		Usuario referencia = Usuario.builder().id(1l).build();
+		Mockito.when(repository.getReferenceById(1l)).thenReturn(referencia);
+		
+		//action
+		Usuario resultado = service.obterReferencia(1l);
+		
+		//verification
+		Assertions.assertSame(referencia, resultado);
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
 	@Test
 	public void naoDeveSalvarUmUsuarioComEmailJaCadastrado() {
 		//scenario
@@ -143,4 +187,35 @@ public class UsuarioServiceTest {
 		
 	}
 	
+	@Test
+	public void deveConverterEmRegraNegocioAViolacaoDoEmailUnicoAoSalvar() {
+		//scenario
+		Usuario usuario = Usuario.builder().email("usuario@email.com").senha("senhaCriptografada").build();
+		Mockito.when(repository.save(usuario))
+			.thenThrow(new DataIntegrityViolationException("uk_usuario_email", new SQLException("duplicado", "23505")));
+		
+		//action
+		RegraNegocioException erro = Assertions.assertThrows(
+				RegraNegocioException.class,
+				() -> { service.salvarUsuarioCriptografado(usuario); }
+		);
+		
+		//verification
+		Assertions.assertEquals("Já existe um usuário cadastrado com este email.", erro.getMessage());
+	}
+	
+	@Test
+	public void naoDeveMascararOutrasViolacoesAoSalvar() {
+		//scenario
+		Usuario usuario = Usuario.builder().email("usuario@email.com").build();
+		Mockito.when(repository.save(usuario))
+			.thenThrow(new DataIntegrityViolationException("nulo", new SQLException("nulo", "23502")));
+		
+		//action and verification
+		Assertions.assertThrows(
+				DataIntegrityViolationException.class,
+				() -> { service.salvarUsuarioCriptografado(usuario); }
+		);
+	}
+	
 }
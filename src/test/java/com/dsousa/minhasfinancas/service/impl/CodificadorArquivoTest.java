@@ -0,0 +1,109 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+public class CodificadorArquivoTest {
+
+	static final Long ID_USUARIO = 7l;
+	static final Integer ANO = 2015;
+	
+	@Test
+	public void deveManterTodosOsCamposDeCadaTipoEStatus() {
+		//scenario
+		String[] valores = {"100", "25.5", "0.01", "3.10", "1.500", "99999999999999.99"};
+		List<Lancamento> lancamentos = new ArrayList<>();
+		long id = 3;
+		for(TipoLancamento tipo : TipoLancamento.values()) {
+			for(StatusLancamento status : StatusLancamento.values()) {
+				int indice = lancamentos.size();
+				lancamentos.add(Lancamento.builder()
+						.id(id)
+						.descricao("lançamento " + indice)
+						.mes(indice % 12 + 1)
+						.ano(ANO)
+						.valor(new BigDecimal(valores[indice]))
+						.tipo(tipo)
+						.status(status)
+						.dataCadastro(LocalDate.of(ANO, indice % 12 + 1, 28))
+						.versao((long) indice)
+						.usuario(Usuario.builder().id(ID_USUARIO).build())
+						.build());
+				id += 1000 * (indice + 1);
+			}
+		}
+		
+		//action
+		List<Lancamento> lidos = compactarEDescompactar(lancamentos);
+		
+		//verification
+		Assertions.assertEquals(lancamentos.size(), lidos.size());
+		for(int i = 0; i < lancamentos.size(); i++) {
+			Lancamento original = lancamentos.get(i);
+			Lancamento lido = lidos.get(i);
+			Assertions.assertEquals(original.getId(), lido.getId());
+			Assertions.assertEquals(original.getDescricao(), lido.getDescricao());
+			Assertions.assertEquals(original.getMes(), lido.getMes());
+			Assertions.assertEquals(ANO, lido.getAno());
+			Assertions.assertEquals(original.getValor().setScale(2), lido.getValor());
+			Assertions.assertEquals(2, lido.getValor().scale());
+			Assertions.assertEquals(original.getTipo(), lido.getTipo());
+			Assertions.assertEquals(original.getStatus(), lido.getStatus());
+			Assertions.assertEquals(original.getDataCadastro(), lido.getDataCadastro());
+			Assertions.assertEquals(original.getVersao(), lido.getVersao());
+			Assertions.assertEquals(ID_USUARIO, lido.getUsuario().getId());
+		}
+	}
+	
+	@Test
+	public void deveManterOsCamposNulos() {
+		//scenario
+		Lancamento lancamento = Lancamento.builder().id(1l).mes(1).ano(ANO).valor(BigDecimal.ONE).build();
+		
+		//action
+		Lancamento lido = compactarEDescompactar(Collections.singletonList(lancamento)).get(0);
+		
+		//verification
+		Assertions.assertNull(lido.getDescricao());
+		Assertions.assertNull(lido.getTipo());
+		Assertions.assertNull(lido.getStatus());
+		Assertions.assertNull(lido.getDataCadastro());
+		Assertions.assertNull(lido.getVersao());
+		Assertions.assertEquals(new BigDecimal("1.00"), lido.getValor());
+	}
+	
+	@Test
+	public void deveLerUmArquivoVazio() {
+		//action
+		List<Lancamento> lidos = compactarEDescompactar(Collections.emptyList());
+		
+		//verification
+		Assertions.assertTrue(lidos.isEmpty());
+	}
+	
+	@Test
+	public void deveRecusarValorComMaisDeDuasCasasDecimais() {
+		//scenario
+		Lancamento lancamento = Lancamento.builder().id(1l).mes(1).ano(ANO).valor(new BigDecimal("1.005")).build();
+		
+		//action and verification
+		Assertions.assertThrows(ArithmeticException.class, 
+				() -> CodificadorArquivo.compactar(Collections.singletonList(lancamento)));
+	}
+	
+	private static List<Lancamento> compactarEDescompactar(List<Lancamento> lancamentos) {
+		return CodificadorArquivo.descompactar(CodificadorArquivo.compactar(lancamentos), ID_USUARIO, ANO);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+// seis baldes de 10 nanos: a janela cobre 60 nanos e cada balde sai dela 60 nanos depois de começar
+public class JanelaDeslizanteTest {
+
+	static final int BALDES = 6;
+	static final long DURACAO_BALDE = 10;
+	
+	@Test
+	public void naoDeveContarAsTentativasRecusadas() {
+		//scenario
+		JanelaDeslizante janela = new JanelaDeslizante(BALDES, DURACAO_BALDE);
+		
+		//action
+		int admitidas = 0;
+		for(int i = 0; i < 5; i++) {
+			if(janela.registrar(5, 3)) {
+				admitidas++;
+			}
+		}
+		
+		//verification
+		Assertions.assertEquals(3, admitidas);
+		Assertions.assertEquals(3, janela.contar(5));
+		// o primeiro balde sai da janela no instante 60, mesmo com as tentativas recusadas depois dele
+		Assertions.assertFalse(janela.registrar(55, 3));
+		Assertions.assertTrue(janela.registrar(60, 3));
+	}
+	
+	@Test
+	public void deveCalcularOTempoAteATentativaMaisAntigaSairDaJanela() {
+		//scenario
+		JanelaDeslizante janela = new JanelaDeslizante(BALDES, DURACAO_BALDE);
+		janela.registrar(5, 10);
+		janela.registrar(5, 10);
+		janela.registrar(25, 10);
+		
+		//action and verification
+		Assertions.assertEquals(30, janela.nanosAteLiberar(30, 3));
+		Assertions.assertEquals(30, janela.nanosAteLiberar(30, 2));
+		// com máximo 1 também o balde do instante 25 precisa sair, o que só acontece em 80
+		Assertions.assertEquals(50, janela.nanosAteLiberar(30, 1));
+		Assertions.assertEquals(0, janela.nanosAteLiberar(30, 4));
+	}
+
+}